@@ -0,0 +1,147 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Assignability#matches(TypeMirror, TypeMirror)} over parameterized and wildcard types, with and
+ * without {@linkplain Assignability#Assignability(TypeAndElementSource, int) caching}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class AssignabilityBenchmarks {
+
+  /**
+   * The size of the {@link Assignability}'s cache; {@code 0} disables caching.
+   */
+  @Param({ "0", "1024" })
+  public int cacheSize;
+
+  private Assignability assignability;
+
+  // List<String>
+  private TypeMirror listString;
+
+  // List<? extends CharSequence>
+  private TypeMirror listUnknownExtendsCharSequence;
+
+  // Map<String, Integer>
+  private TypeMirror mapStringInteger;
+
+  // Map<String, ? super Integer>
+  private TypeMirror mapStringUnknownSuperInteger;
+
+  // Map<String, Object>
+  private TypeMirror mapStringObject;
+
+  /**
+   * Creates a new {@link AssignabilityBenchmarks}.
+   */
+  public AssignabilityBenchmarks() {
+    super();
+  }
+
+  /**
+   * Builds the types to be matched.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    final TypeAndElementSource tes = Lang.typeAndElementSource();
+    this.assignability = new Assignability(tes, this.cacheSize);
+    final TypeMirror string = tes.declaredType(String.class);
+    final TypeMirror integer = tes.declaredType(Integer.class);
+    this.listString = delegate(tes, tes.declaredType(null, tes.typeElement(List.class), string));
+    this.listUnknownExtendsCharSequence =
+      delegate(tes, tes.declaredType(null, tes.typeElement(List.class), tes.wildcardType(tes.declaredType(CharSequence.class), null)));
+    this.mapStringInteger = delegate(tes, tes.declaredType(null, tes.typeElement(Map.class), string, integer));
+    this.mapStringUnknownSuperInteger =
+      delegate(tes, tes.declaredType(null, tes.typeElement(Map.class), string, tes.wildcardType(null, integer)));
+    this.mapStringObject = delegate(tes, tes.declaredType(null, tes.typeElement(Map.class), string, tes.declaredType(Object.class)));
+  }
+
+  /**
+   * Matches {@code List<String>} against {@code List<String>}.
+   *
+   * @return the result of matching
+   */
+  @Benchmark
+  public boolean parameterizedIdentical() {
+    return this.assignability.matches(this.listString, this.listString);
+  }
+
+  /**
+   * Matches {@code List<String>} against {@code Map<String, Integer>}.
+   *
+   * @return the result of matching
+   */
+  @Benchmark
+  public boolean parameterizedUnrelated() {
+    return this.assignability.matches(this.listString, this.mapStringInteger);
+  }
+
+  /**
+   * Matches {@code List<String>} against {@code List<? extends CharSequence>}.
+   *
+   * @return the result of matching
+   */
+  @Benchmark
+  public boolean wildcardExtends() {
+    return this.assignability.matches(this.listUnknownExtendsCharSequence, this.listString);
+  }
+
+  /**
+   * Matches {@code Map<String, Object>} against {@code Map<String, ? super Integer>}.
+   *
+   * @return the result of matching
+   */
+  @Benchmark
+  public boolean wildcardSuper() {
+    return this.assignability.matches(this.mapStringUnknownSuperInteger, this.mapStringObject);
+  }
+
+  private static final TypeMirror delegate(final TypeAndElementSource tes, final TypeMirror t) {
+    return DelegatingTypeMirror.of(t, tes, Lang.sameTypeEquality());
+  }
+
+}
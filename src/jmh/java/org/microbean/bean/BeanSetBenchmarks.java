@@ -0,0 +1,154 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link DefaultBeanSet#bean(BeanSelectionCriteria)} with cold and warm caches.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+public class BeanSetBenchmarks {
+
+  // The number of distinct criteria resolved against each cold DefaultBeanSet; no larger than the smallest Population.
+  private static final int COLD_BATCH = 100;
+
+  /**
+   * Creates a new {@link BeanSetBenchmarks}.
+   */
+  public BeanSetBenchmarks() {
+    super();
+  }
+
+  /**
+   * Resolves {@value #COLD_BATCH} {@link Bean}s, each from criteria that the caches of a freshly constructed {@link
+   * DefaultBeanSet} have never seen.
+   *
+   * <p>Constructing a {@link DefaultBeanSet} costs far more than one resolution, so rather than rebuilding one before
+   * every invocation, this benchmark runs once per iteration against a {@link DefaultBeanSet} rebuilt before every
+   * iteration, and reports the time per resolution.</p>
+   *
+   * @param p the {@link Population}
+   *
+   * @param cold a freshly constructed {@link DefaultBeanSet}
+   *
+   * @param bh a {@link Blackhole}
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Measurement(iterations = 50)
+  @OperationsPerInvocation(COLD_BATCH)
+  @Warmup(iterations = 10)
+  public void coldBean(final Population p, final Cold cold, final Blackhole bh) {
+    final BeanSelectionCriteria[] criteria = p.criteria;
+    for (int i = 0; i < COLD_BATCH; i++) {
+      bh.consume(cold.beanSet.bean(criteria[i]));
+    }
+  }
+
+  /**
+   * Resolves a {@link Bean} from a {@link DefaultBeanSet} whose caches have already resolved the criteria.
+   *
+   * @param p the {@link Population}
+   *
+   * @param warm a primed {@link DefaultBeanSet}
+   *
+   * @param cursor a {@link Population.Cursor}
+   *
+   * @return the resolved {@link Bean}
+   */
+  @Benchmark
+  public Bean<?> warmBean(final Population p, final Warm warm, final Population.Cursor cursor) {
+    return warm.beanSet.bean(p.criteria[cursor.next(p.size)]);
+  }
+
+  /**
+   * A {@link DefaultBeanSet} rebuilt before every iteration.
+   */
+  @State(Scope.Thread)
+  public static class Cold {
+
+    DefaultBeanSet beanSet;
+
+    /**
+     * Creates a new {@link Cold}.
+     */
+    public Cold() {
+      super();
+    }
+
+    /**
+     * Builds the {@link DefaultBeanSet}.
+     *
+     * @param p the {@link Population}
+     */
+    @Setup(Level.Iteration)
+    public void setup(final Population p) {
+      this.beanSet = new DefaultBeanSet(p.assignability, p.beans);
+    }
+
+  }
+
+  /**
+   * A {@link DefaultBeanSet} built once, with every criteria already resolved.
+   */
+  @State(Scope.Benchmark)
+  public static class Warm {
+
+    DefaultBeanSet beanSet;
+
+    /**
+     * Creates a new {@link Warm}.
+     */
+    public Warm() {
+      super();
+    }
+
+    /**
+     * Builds and primes the {@link DefaultBeanSet}.
+     *
+     * @param p the {@link Population}
+     */
+    @Setup(Level.Trial)
+    public void setup(final Population p) {
+      this.beanSet = new DefaultBeanSet(p.assignability, p.beans);
+      for (final BeanSelectionCriteria bsc : p.criteria) {
+        this.beanSet.bean(bsc);
+      }
+    }
+
+  }
+
+}
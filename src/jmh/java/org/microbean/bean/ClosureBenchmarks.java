@@ -0,0 +1,167 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import java.util.function.Predicate;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.lang.visitor.Visitors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BeanTypeList#closure(TypeMirror, TypeAndElementSource)}, which is cached, so that after the first
+ * invocation it measures only a cache hit; {@link BeanTypeList#closure(TypeMirror, Predicate, Visitors)} with a {@code
+ * null} filter, which yields the same closure but is not cached, so that it measures the full computation; and the
+ * construction of a {@link BeanTypeList} from an already computed type closure.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class ClosureBenchmarks {
+
+  private TypeAndElementSource tes;
+
+  private Visitors visitors;
+
+  private TypeMirror string;
+
+  // ArrayList<String>
+  private TypeMirror arrayListString;
+
+  // ConcurrentHashMap<String, Integer>
+  private TypeMirror concurrentHashMapStringInteger;
+
+  // The uncached, unsorted type closure of ConcurrentHashMap<String, Integer>
+  private List<? extends TypeMirror> concurrentHashMapStringIntegerClosure;
+
+  /**
+   * Creates a new {@link ClosureBenchmarks}.
+   */
+  public ClosureBenchmarks() {
+    super();
+  }
+
+  /**
+   * Builds the types whose closures will be computed.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.tes = Lang.typeAndElementSource();
+    this.visitors = new Visitors(this.tes);
+    this.string = this.tes.declaredType(String.class);
+    this.arrayListString = this.tes.declaredType(null, this.tes.typeElement(ArrayList.class), this.string);
+    this.concurrentHashMapStringInteger =
+      this.tes.declaredType(null, this.tes.typeElement(ConcurrentHashMap.class), this.string, this.tes.declaredType(Integer.class));
+    this.concurrentHashMapStringIntegerClosure =
+      new Visitors(this.tes).typeClosureVisitor().visit(this.concurrentHashMapStringInteger).toList();
+  }
+
+  /**
+   * Retrieves the cached closure of {@link String}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList string() {
+    return BeanTypeList.closure(this.string, this.tes);
+  }
+
+  /**
+   * Retrieves the cached closure of {@code ArrayList<String>}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList arrayListString() {
+    return BeanTypeList.closure(this.arrayListString, this.tes);
+  }
+
+  /**
+   * Retrieves the cached closure of {@code ConcurrentHashMap<String, Integer>}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList concurrentHashMapStringInteger() {
+    return BeanTypeList.closure(this.concurrentHashMapStringInteger, this.tes);
+  }
+
+  /**
+   * Computes, without caching, the closure of {@link String}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList stringUncached() {
+    return BeanTypeList.closure(this.string, null, this.visitors);
+  }
+
+  /**
+   * Computes, without caching, the closure of {@code ArrayList<String>}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList arrayListStringUncached() {
+    return BeanTypeList.closure(this.arrayListString, null, this.visitors);
+  }
+
+  /**
+   * Computes, without caching, the closure of {@code ConcurrentHashMap<String, Integer>}.
+   *
+   * @return the closure
+   */
+  @Benchmark
+  public BeanTypeList concurrentHashMapStringIntegerUncached() {
+    return BeanTypeList.closure(this.concurrentHashMapStringInteger, null, this.visitors);
+  }
+
+  /**
+   * Builds (deduplicates, filters and sorts) a {@link BeanTypeList} from the type closure of {@code
+   * ConcurrentHashMap<String, Integer>}.
+   *
+   * @return the {@link BeanTypeList}
+   */
+  @Benchmark
+  public BeanTypeList concurrentHashMapStringIntegerList() {
+    return new BeanTypeList(this.concurrentHashMapStringIntegerClosure, this.tes, Lang.sameTypeEquality());
+  }
+
+}
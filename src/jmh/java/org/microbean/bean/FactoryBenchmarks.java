@@ -0,0 +1,102 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link AbstractFactory#create(Creation, ReferenceSelector)}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("deprecation")
+@Warmup(iterations = 3, time = 2)
+public class FactoryBenchmarks {
+
+  /**
+   * Creates a new {@link FactoryBenchmarks}.
+   */
+  public FactoryBenchmarks() {
+    super();
+  }
+
+  /**
+   * Creates a product using a factory all of whose stages other than its {@link Producer} are passthroughs.
+   *
+   * @param f the {@link Factories}
+   *
+   * @return the product
+   */
+  @Benchmark
+  public Object passthroughs(final Factories f) {
+    return f.passthroughs.create(null, null);
+  }
+
+  /**
+   * Creates a product using a factory with a {@link Producer} and an {@link InterceptionsApplicator}.
+   *
+   * @param f the {@link Factories}
+   *
+   * @return the product
+   */
+  @Benchmark
+  public Object intercepted(final Factories f) {
+    return f.intercepted.create(null, null);
+  }
+
+  /**
+   * The {@link AbstractFactory} instances under test.
+   */
+  @State(Scope.Benchmark)
+  public static class Factories {
+
+    AbstractFactory<Object> passthroughs;
+
+    AbstractFactory<Object> intercepted;
+
+    /**
+     * Creates a new {@link Factories}.
+     */
+    public Factories() {
+      super();
+    }
+
+    /**
+     * Builds the factories.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+      this.passthroughs = new AbstractFactory<>((c, r) -> new Object(), null, null, null, null) {};
+      this.intercepted = new AbstractFactory<>((c, r) -> new Object(), null, null, (i, c, r) -> i, null) {};
+    }
+
+  }
+
+}
@@ -0,0 +1,160 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.io.Serializable;
+
+import java.lang.constant.Constable;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.qualifier.NamedAttributeMap;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static org.microbean.bean.Qualifiers.anyQualifier;
+import static org.microbean.bean.Qualifiers.qualifier;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+/**
+ * A JMH {@link State} holding a synthetic population of {@link Bean}s, together with {@link BeanSelectionCriteria}
+ * each of which selects exactly one of them.
+ *
+ * <p>Bean {@code i} has two bean types: one drawn from a fixed pool of JDK types, and {@link Object}. It is qualified
+ * with {@code @Named("bean" + i)} and {@code @Any}, and has a rank of {@code i % 3}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@State(Scope.Benchmark)
+public class Population {
+
+  private static final Class<?>[] TYPES = new Class<?>[] {
+    AbstractList.class, ArrayList.class, Boolean.class, Byte.class, Callable.class, CharSequence.class, Character.class,
+    Collection.class, Comparable.class, ConcurrentHashMap.class, Constable.class, Double.class, Executor.class,
+    Float.class, Function.class, HashMap.class, Integer.class, Iterable.class, List.class, Long.class, Map.class,
+    Number.class, Runnable.class, Serializable.class, Set.class, Short.class, String.class, StringBuilder.class,
+    Supplier.class, Thread.class
+  };
+
+  /**
+   * The number of {@link Bean}s in the population.
+   */
+  @Param({ "100", "1000", "10000", "100000" })
+  public int size;
+
+  /**
+   * The {@link TypeAndElementSource} in use.
+   */
+  public TypeAndElementSource tes;
+
+  /**
+   * The {@link Assignability} in use.
+   */
+  public Assignability assignability;
+
+  /**
+   * The {@link Bean}s.
+   */
+  public List<Bean<?>> beans;
+
+  /**
+   * {@link BeanSelectionCriteria}, one per {@link Bean}, such that {@code criteria[i]} selects and resolves {@code
+   * beans.get(i)}.
+   */
+  public BeanSelectionCriteria[] criteria;
+
+  /**
+   * Creates a new {@link Population}.
+   */
+  public Population() {
+    super();
+  }
+
+  /**
+   * Builds the population.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    this.tes = Lang.typeAndElementSource();
+    this.assignability = new Assignability(this.tes);
+    final TypeMirror[] types = new TypeMirror[TYPES.length];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = this.tes.declaredType(TYPES[i]);
+    }
+    final TypeMirror object = this.tes.declaredType(Object.class);
+    this.beans = new ArrayList<>(this.size);
+    this.criteria = new BeanSelectionCriteria[this.size];
+    for (int i = 0; i < this.size; i++) {
+      final NamedAttributeMap<?> named = new NamedAttributeMap<>("Named", Map.of("value", "bean" + i), Map.of(), List.of(qualifier()));
+      final TypeMirror t = types[i % types.length];
+      this.beans.add(new Bean<>(new Id(new BeanTypeList(List.of(t, object)), List.of(named, anyQualifier()), SINGLETON_ID, i % 3),
+                                new Singleton<>(Integer.valueOf(i))));
+      this.criteria[i] = new BeanSelectionCriteria(this.assignability, t, List.of(named), true);
+    }
+  }
+
+  /**
+   * A per-thread cursor over a {@link Population}'s {@link BeanSelectionCriteria} and {@link Bean}s.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    /**
+     * Creates a new {@link Cursor}.
+     */
+    public Cursor() {
+      super();
+    }
+
+    /**
+     * Returns the next index, wrapping at the supplied bound.
+     *
+     * @param bound the (exclusive) bound; must be positive
+     *
+     * @return the next index
+     */
+    public final int next(final int bound) {
+      final int rv = this.next;
+      this.next = rv + 1 >= bound ? 0 : rv + 1;
+      return rv;
+    }
+
+  }
+
+}
@@ -0,0 +1,114 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Alternate.Resolver#resolve(BeanSelectionCriteria, Collection, java.util.function.BiFunction)}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+public class ResolverBenchmarks {
+
+  /**
+   * Creates a new {@link ResolverBenchmarks}.
+   */
+  public ResolverBenchmarks() {
+    super();
+  }
+
+  /**
+   * Resolves a population of non-alternate {@link Bean}s, which is ambiguous.
+   *
+   * @param p the {@link Population}
+   *
+   * @return the result of the failure handler, which is {@code null}
+   */
+  @Benchmark
+  public Bean<?> ambiguous(final Population p) {
+    return Alternate.Resolver.DEFAULT.resolve(null, p.beans, ResolverBenchmarks::returnNull);
+  }
+
+  /**
+   * Resolves a population of {@link Alternate}s of which exactly one is an alternate with the highest rank.
+   *
+   * @param a the {@link Alternates}
+   *
+   * @return the resolved {@link Alternate}
+   */
+  @Benchmark
+  public Alternate alternates(final Alternates a) {
+    return Alternate.Resolver.DEFAULT.resolve(null, a.alternates, ResolverBenchmarks::returnNull);
+  }
+
+  private static final <T> T returnNull(final BeanSelectionCriteria bsc, final Collection<?> alternates) {
+    return null;
+  }
+
+  /**
+   * A synthetic population of {@link Alternate}s, sized like a {@link Population}, in which alternates of increasing
+   * rank are interspersed among non-alternates.
+   */
+  @State(Scope.Benchmark)
+  public static class Alternates {
+
+    List<Alternate> alternates;
+
+    /**
+     * Creates a new {@link Alternates}.
+     */
+    public Alternates() {
+      super();
+    }
+
+    /**
+     * Builds the population.
+     *
+     * @param p the {@link Population} whose size will be used
+     */
+    @Setup(Level.Trial)
+    public void setup(final Population p) {
+      this.alternates = new ArrayList<>(p.size);
+      for (int i = 0; i < p.size; i++) {
+        this.alternates.add(new Candidate(i, i % 10 == 0));
+      }
+    }
+
+  }
+
+  private static final record Candidate(int rank, boolean alternate) implements Alternate {}
+
+}
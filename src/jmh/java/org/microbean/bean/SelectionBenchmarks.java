@@ -0,0 +1,75 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BeanSelectionCriteria#selects(Bean)}.
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+public class SelectionBenchmarks {
+
+  /**
+   * Creates a new {@link SelectionBenchmarks}.
+   */
+  public SelectionBenchmarks() {
+    super();
+  }
+
+  /**
+   * Tests a {@link Bean} that the criteria selects.
+   *
+   * @param p the {@link Population}
+   *
+   * @param cursor a {@link Population.Cursor}
+   *
+   * @return the result of the selection
+   */
+  @Benchmark
+  public boolean selects(final Population p, final Population.Cursor cursor) {
+    final int i = cursor.next(p.size);
+    return p.criteria[i].selects(p.beans.get(i));
+  }
+
+  /**
+   * Tests a {@link Bean} whose qualifiers the criteria does not select.
+   *
+   * @param p the {@link Population}
+   *
+   * @param cursor a {@link Population.Cursor}
+   *
+   * @return the result of the selection
+   */
+  @Benchmark
+  public boolean doesNotSelect(final Population p, final Population.Cursor cursor) {
+    final int i = cursor.next(p.size);
+    return p.criteria[i].selects(p.beans.get(i == 0 ? p.size - 1 : i - 1));
+  }
+
+}
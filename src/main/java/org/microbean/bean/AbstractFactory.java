@@ -19,20 +19,17 @@ import java.util.Objects;
 @Deprecated
 public abstract class AbstractFactory<I> implements Factory<I> {
 
-  private static final Initializer<?> PASSTHROUGH_INITIALIZER = new AbstractInitializer<Object>();
-
-  private static final PostInitializer<?> PASSTHROUGH_POSTINITIALIZER = new AbstractPostInitializer<Object>();
-
-  private static final InterceptionsApplicator<?> PASSTHROUGH_INTERCEPTIONSAPPLICATOR = new AbstractInterceptionsApplicator<Object>();
-
   private static final PreDestructor<?> PASSTHROUGH_PREDESTRUCTOR = new AbstractPreDestructor<Object>();
 
   private final Producer<I> producer;
 
+  // null if a passthrough
   private final Initializer<I> initializer;
 
+  // null if a passthrough
   private final PostInitializer<I> postInitializer;
 
+  // null if a passthrough
   private final InterceptionsApplicator<I> interceptionsApplicator;
 
   private final PreDestructor<I> preDestructor;
@@ -47,17 +44,28 @@ public abstract class AbstractFactory<I> implements Factory<I> {
                             final PreDestructor<I> preDestructor) { // pre-destroy methods
     super();
     this.producer = Objects.requireNonNull(producer, "producer");
-    this.initializer = initializer == null ? (Initializer<I>)PASSTHROUGH_INITIALIZER : initializer;
-    this.postInitializer = postInitializer == null ? (PostInitializer<I>)PASSTHROUGH_POSTINITIALIZER : postInitializer;
-    this.interceptionsApplicator = interceptionsApplicator == null ? (InterceptionsApplicator<I>)PASSTHROUGH_INTERCEPTIONSAPPLICATOR : interceptionsApplicator;
+    this.initializer = passthrough(initializer, AbstractInitializer.class) ? null : initializer;
+    this.postInitializer = passthrough(postInitializer, AbstractPostInitializer.class) ? null : postInitializer;
+    this.interceptionsApplicator =
+      passthrough(interceptionsApplicator, AbstractInterceptionsApplicator.class) ? null : interceptionsApplicator;
     this.preDestructor = preDestructor == null ? (PreDestructor<I>)PASSTHROUGH_PREDESTRUCTOR : preDestructor;
   }
 
   @Override // Factory<I>
   public I create(final Creation<I> c, final ReferenceSelector r) {
     // Produce the product, initialize the product, apply business method interceptions to the product, return the
-    // product
-    return this.interceptionsApplicator.apply(this.postInitializer.postInitialize(this.initializer.initialize(this.producer.produce(c, r), c, r), c, r), c, r);
+    // product. Stages that would merely return their input are skipped.
+    I i = this.producer.produce(c, r);
+    if (this.initializer != null) {
+      i = this.initializer.initialize(i, c, r);
+    }
+    if (this.postInitializer != null) {
+      i = this.postInitializer.postInitialize(i, c, r);
+    }
+    if (this.interceptionsApplicator != null) {
+      i = this.interceptionsApplicator.apply(i, c, r);
+    }
+    return i;
   }
 
   @Override // Factory<I>
@@ -89,4 +97,10 @@ public abstract class AbstractFactory<I> implements Factory<I> {
     this.destroyed = true;
   }
 
+  // A stage is a passthrough if it is absent or exactly an instance of the (non-abstract) class whose methods merely
+  // return their inputs; subclasses may override those methods.
+  private static final boolean passthrough(final Object stage, final Class<?> passthroughClass) {
+    return stage == null || stage.getClass() == passthroughClass;
+  }
+
 }
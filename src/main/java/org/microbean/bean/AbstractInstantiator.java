@@ -331,19 +331,22 @@ public abstract class AbstractInstantiator<R, I> implements Instantiator<I> {
     } else if (ps.length % 2 != 0) {
       throw new IllegalArgumentException();
     } else {
+      int max = -1;
       for (int i = 0; i < ps.length; i++) {
         if (ps[i] < 0) {
           throw new IndexOutOfBoundsException("ps[" + i + "]: " + ps[i]);
         }
-      }
-      return p -> {
-        for (int i = 0; i < ps.length; i++) {
-          if (ps[i++] == p) {
-            return finalBscs.get(ps[i]);
-          }
+        if (i % 2 == 0 && ps[i] > max) {
+          max = ps[i];
         }
-        return null;
-      };
+      }
+      // Index the criteria by position once so that lookups don't scan.
+      final BeanSelectionCriteria[] byPosition = new BeanSelectionCriteria[max + 1];
+      for (int i = ps.length - 2; i >= 0; i -= 2) {
+        // Iterate backwards so that, as before, the first mapping for a given position wins.
+        byPosition[ps[i]] = finalBscs.get(ps[i + 1]);
+      }
+      return p -> p >= 0 && p < byPosition.length ? byPosition[p] : null;
     }
   }
 
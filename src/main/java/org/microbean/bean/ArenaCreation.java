@@ -0,0 +1,367 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link Creation} and {@link AutoCloseableRegistry} that records the registrations of an entire tree of {@linkplain
+ * #clone(BeanSelectionCriteria) clones} in a single append-only arena shared by the tree.
+ *
+ * <p>Each entry in the arena is either a registered {@link AutoCloseable} or a node representing a clone, together
+ * with the offset of the node it belongs to. {@linkplain #clone(BeanSelectionCriteria) Cloning} therefore allocates
+ * no registry and no set; it appends one entry. {@linkplain #close() Closing} the top-level {@link ArenaCreation}
+ * closes every registrant in the tree in a single walk over the arena in reverse order of registration. Closing a
+ * clone closes, in the same order, only the registrants in its own subtree.</p>
+ *
+ * <p>The arena is append-only: entries closed with a clone's subtree are not reclaimed until the top-level {@link
+ * ArenaCreation} is closed. {@link ArenaCreation}s are best suited to trees of creations that are torn down
+ * together, such as the dependent objects of one top-level creation.</p>
+ *
+ * <p>Registrations are identity-based: an {@link AutoCloseable} is considered already registered with an {@link
+ * ArenaCreation} if the very same object has been registered with it directly. Checking for an earlier registration
+ * does not depend on the size of the arena; a set of registrants is kept only for those {@link ArenaCreation}s with
+ * more than one.</p>
+ *
+ * @param <I> the type of the instance being created
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see DefaultCreation
+ */
+public final class ArenaCreation<I> implements AutoCloseableRegistry, Creation<I> {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  // Marks an arena entry as a node (a clone) rather than a registrant.
+  private static final AutoCloseable NODE = () -> {};
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Arena arena;
+
+  // The offset of this ArenaCreation's node in the arena.
+  private final int node;
+
+  private final BeanSelectionCriteria beanSelectionCriteria;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new top-level {@link ArenaCreation}.
+   */
+  public ArenaCreation() {
+    this(null);
+  }
+
+  /**
+   * Creates a new top-level {@link ArenaCreation}.
+   *
+   * @param beanSelectionCriteria the {@link BeanSelectionCriteria} for which the creation is being performed; may be
+   * {@code null}
+   */
+  public ArenaCreation(final BeanSelectionCriteria beanSelectionCriteria) {
+    this(new Arena(), 0, beanSelectionCriteria);
+  }
+
+  private ArenaCreation(final Arena arena, final int node, final BeanSelectionCriteria beanSelectionCriteria) {
+    super();
+    this.arena = arena;
+    this.node = node;
+    this.beanSelectionCriteria = beanSelectionCriteria;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override // Creation<I>
+  public final BeanSelectionCriteria beanSelectionCriteria() {
+    return this.beanSelectionCriteria;
+  }
+
+  @Override // AutoCloseableRegistry
+  public final ArenaCreation<I> clone() {
+    return this.clone(this.beanSelectionCriteria());
+  }
+
+  /**
+   * Returns a new {@link ArenaCreation} sharing this {@link ArenaCreation}'s arena whose registrants will be closed
+   * when either it or this {@link ArenaCreation} is {@linkplain #close() closed}.
+   *
+   * <p>If this {@link ArenaCreation} is {@linkplain #closed() closed}, a new top-level {@link ArenaCreation} is
+   * returned instead.</p>
+   *
+   * @param beanSelectionCriteria the {@link BeanSelectionCriteria} for which the creation is being performed; may be
+   * {@code null}
+   *
+   * @return a new {@link ArenaCreation}; never {@code null}
+   */
+  @Override // Creation<I>
+  public final ArenaCreation<I> clone(final BeanSelectionCriteria beanSelectionCriteria) {
+    final int child = this.arena.append(this.node, NODE);
+    return child < 0 ? new ArenaCreation<>(beanSelectionCriteria) : new ArenaCreation<>(this.arena, child, beanSelectionCriteria);
+  }
+
+  @Override // AutoCloseableRegistry
+  public final void close() {
+    final AutoCloseable[] closeables = this.arena.close(this.node);
+    if (closeables == null) {
+      // already closed
+      return;
+    }
+    RuntimeException re = null;
+    for (int i = closeables.length - 1; i >= 0; i--) {
+      try {
+        closeables[i].close();
+      } catch (final RuntimeException e) {
+        if (re == null) {
+          re = e;
+        } else {
+          re.addSuppressed(e);
+        }
+      } catch (final Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        if (re == null) {
+          re = new BeanException(e.getMessage(), e);
+        } else {
+          re.addSuppressed(e);
+        }
+      }
+    }
+    if (re != null) {
+      throw re;
+    }
+  }
+
+  @Override // AutoCloseableRegistry
+  public final boolean closed() {
+    return this.arena.closed(this.node);
+  }
+
+  @Override // AutoCloseableRegistry
+  public final boolean register(final AutoCloseable closeable) {
+    if (Objects.requireNonNull(closeable, "closeable") == this) {
+      throw new IllegalArgumentException("closeable == this");
+    }
+    return this.arena.register(this.node, closeable);
+  }
+
+  /**
+   * Returns the number of entries in the arena this {@link ArenaCreation} shares with its tree, including entries for
+   * clones and for registrants that have already been closed, or {@code 0} if the top-level {@link ArenaCreation} has
+   * been closed.
+   *
+   * @return the number of arena entries; always {@code 0} or greater
+   */
+  public final int arenaSize() {
+    return this.arena.size();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Arena {
+
+    private final ReentrantLock lock;
+
+    // @GuardedBy("lock")
+    private AutoCloseable[] closeables; // null entries have been closed
+
+    // @GuardedBy("lock")
+    private int[] parents;
+
+    // Indexed by node offset: the first registrant of each node, against which a repeated registration is checked
+    // @GuardedBy("lock")
+    private AutoCloseable[] firsts;
+
+    // Keyed by node offset: the registrants of each node with more than one, created on its second registration
+    // @GuardedBy("lock")
+    private Map<Integer, Set<AutoCloseable>> registrants;
+
+    // @GuardedBy("lock")
+    private int size;
+
+    private Arena() {
+      super();
+      this.lock = new ReentrantLock();
+      this.closeables = new AutoCloseable[16];
+      this.parents = new int[16];
+      this.firsts = new AutoCloseable[16];
+      this.closeables[0] = NODE;
+      this.parents[0] = -1;
+      this.size = 1;
+    }
+
+    // Returns the offset of the new entry, or -1 if parent is closed.
+    private final int append(final int parent, final AutoCloseable closeable) {
+      this.lock.lock();
+      try {
+        if (this.dead(parent)) {
+          return -1;
+        }
+        if (this.size == this.closeables.length) {
+          this.closeables = Arrays.copyOf(this.closeables, this.size << 1);
+          this.parents = Arrays.copyOf(this.parents, this.size << 1);
+          this.firsts = Arrays.copyOf(this.firsts, this.size << 1);
+        }
+        this.closeables[this.size] = closeable;
+        this.parents[this.size] = parent;
+        return this.size++;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    private final boolean register(final int node, final AutoCloseable closeable) {
+      this.lock.lock();
+      try {
+        if (this.dead(node)) {
+          return false;
+        }
+        final AutoCloseable first = this.firsts[node];
+        if (first == null) {
+          this.firsts[node] = closeable;
+        } else if (first == closeable) {
+          return false;
+        } else {
+          if (this.registrants == null) {
+            this.registrants = new HashMap<>();
+          }
+          final Set<AutoCloseable> registrants =
+            this.registrants.computeIfAbsent(node, n -> Collections.newSetFromMap(new IdentityHashMap<>()));
+          if (!registrants.add(closeable)) {
+            return false;
+          }
+        }
+        return this.append(node, closeable) >= 0;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    private final boolean closed(final int node) {
+      this.lock.lock();
+      try {
+        return this.dead(node);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    // @GuardedBy("lock")
+    private final boolean dead(final int node) {
+      return this.closeables == null || this.closeables[node] == null;
+    }
+
+    private final int size() {
+      this.lock.lock();
+      try {
+        return this.closeables == null ? 0 : this.size;
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    // Discards the record of node's registrants, which is needed only while node is open.
+    // @GuardedBy("lock")
+    private final void forget(final int node) {
+      this.firsts[node] = null;
+      if (this.registrants != null) {
+        this.registrants.remove(node);
+      }
+    }
+
+    // Returns the registrants in node's subtree in order of registration, or null if node is already closed.
+    private final AutoCloseable[] close(final int node) {
+      this.lock.lock();
+      try {
+        if (this.dead(node)) {
+          return null;
+        }
+        final AutoCloseable[] closeables = this.closeables;
+        final int size = this.size;
+        final AutoCloseable[] subtree = new AutoCloseable[size - node];
+        int count = 0;
+        if (node == 0) {
+          // The whole tree.
+          for (int i = 1; i < size; i++) {
+            final AutoCloseable c = closeables[i];
+            if (c != null && c != NODE) {
+              subtree[count++] = c;
+            }
+          }
+          this.closeables = null;
+          this.parents = null;
+          this.firsts = null;
+          this.registrants = null;
+          this.size = 0;
+        } else {
+          // Parents always precede their children, so one forward pass finds node's descendants.
+          final boolean[] descendant = new boolean[size - node];
+          descendant[0] = true;
+          this.forget(node);
+          closeables[node] = null;
+          for (int i = node + 1; i < size; i++) {
+            final int parent = this.parents[i];
+            if (parent >= node && descendant[parent - node]) {
+              descendant[i - node] = true;
+              final AutoCloseable c = closeables[i];
+              if (c != null) {
+                if (c == NODE) {
+                  this.forget(i);
+                } else {
+                  subtree[count++] = c;
+                }
+                closeables[i] = null;
+              }
+            }
+          }
+        }
+        return count == subtree.length ? subtree : Arrays.copyOf(subtree, count);
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+  }
+
+}
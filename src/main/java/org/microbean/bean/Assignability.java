@@ -23,6 +23,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import java.util.function.Predicate;
 
 import javax.lang.model.element.Element;
@@ -43,7 +45,10 @@ import javax.lang.model.type.WildcardType;
 import org.microbean.lang.Lang;
 import org.microbean.lang.TypeAndElementSource;
 
+import org.microbean.lang.type.DelegatingTypeMirror;
+
 import static java.lang.constant.ConstantDescs.BSM_INVOKE;
+import static java.lang.constant.ConstantDescs.CD_int;
 
 import static org.microbean.bean.ConstantDescs.CD_Assignability;
 
@@ -52,6 +57,10 @@ import static org.microbean.lang.ConstantDescs.CD_TypeAndElementSource;
 /**
  * A class encapsulating CDI-compatible assignability ("matching") rules as applied to {@link TypeMirror}s.
  *
+ * <p>An {@link Assignability} may optionally {@linkplain #Assignability(TypeAndElementSource, int) cache} the results
+ * of its {@link #matches(TypeMirror, TypeMirror)} method, which can be expensive, in a bounded concurrent cache keyed
+ * by {@link DelegatingTypeMirror} pairs.</p>
+ *
  * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
  *
  * @see #matches(TypeMirror, TypeMirror)
@@ -67,6 +76,16 @@ public final class Assignability implements Constable {
 
   private final TypeAndElementSource tes;
 
+  // The maximum size of the cache, or 0 if results of the matches(TypeMirror, TypeMirror) method are not cached.
+  private final int cacheSize;
+
+  // null if cacheSize == 0
+  private final ClockCache<Key, Boolean> cache;
+
+  private final LongAdder cacheHits;
+
+  private final LongAdder cacheMisses;
+
 
   /*
    * Constructors.
@@ -79,8 +98,7 @@ public final class Assignability implements Constable {
    * @see #Assignability(TypeAndElementSource)
    */
   public Assignability() {
-    super();
-    this.tes = Lang.typeAndElementSource();
+    this(Lang.typeAndElementSource(), 0);
   }
 
   /**
@@ -94,8 +112,43 @@ public final class Assignability implements Constable {
    * @see Lang#typeAndElementSource()
    */
   public Assignability(final TypeAndElementSource tes) {
+    this(tes, 0);
+  }
+
+  /**
+   * Creates a new {@link Assignability} that caches up to the supplied number of results of its {@link
+   * #matches(TypeMirror, TypeMirror)} method.
+   *
+   * <p>Only results for pairs of {@link DelegatingTypeMirror}s are cached, keyed by their {@linkplain
+   * DelegatingTypeMirror#equals(Object) equality}. When the cache is full, an entry that has not been used recently is
+   * evicted to make room for a new one. Cache hits take no lock.</p>
+   *
+   * @param tes a {@link TypeAndElementSource}; may be {@code null} in which case the return value of an invocation of
+   * {@link Lang#typeAndElementSource()} will be used instead
+   *
+   * @param cacheSize the maximum number of results to cache; if less than or equal to {@code 0} no results will be
+   * cached
+   *
+   * @see #cacheHits()
+   *
+   * @see #cacheMisses()
+   *
+   * @see TypeAndElementSource
+   *
+   * @see Lang#typeAndElementSource()
+   */
+  public Assignability(final TypeAndElementSource tes, final int cacheSize) {
     super();
     this.tes = tes == null ? Lang.typeAndElementSource() : tes;
+    this.cacheHits = new LongAdder();
+    this.cacheMisses = new LongAdder();
+    if (cacheSize > 0) {
+      this.cacheSize = cacheSize;
+      this.cache = new ClockCache<>(cacheSize, null);
+    } else {
+      this.cacheSize = 0;
+      this.cache = null;
+    }
   }
 
 
@@ -107,15 +160,52 @@ public final class Assignability implements Constable {
   @Override // Constable
   public final Optional<? extends ConstantDesc> describeConstable() {
     if (this.tes instanceof Constable c) {
+      if (this.cacheSize == 0) {
+        return c.describeConstable()
+          .map(tesDesc -> DynamicConstantDesc.of(BSM_INVOKE,
+                                                 MethodHandleDesc.ofConstructor(CD_Assignability,
+                                                                                CD_TypeAndElementSource),
+                                                 tesDesc));
+      }
       return c.describeConstable()
         .map(tesDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                                MethodHandleDesc.ofConstructor(CD_Assignability,
-                                                                              CD_TypeAndElementSource),
-                                               tesDesc));
+                                                                              CD_TypeAndElementSource,
+                                                                              CD_int),
+                                               tesDesc,
+                                               this.cacheSize));
     }
     return Optional.empty();
   }
 
+  /**
+   * Returns the number of times a result of the {@link #matches(TypeMirror, TypeMirror)} method was found in this
+   * {@link Assignability}'s cache.
+   *
+   * <p>If this {@link Assignability} does not cache results, this method returns {@code 0L}.</p>
+   *
+   * @return the number of cache hits
+   *
+   * @see #Assignability(TypeAndElementSource, int)
+   */
+  public final long cacheHits() {
+    return this.cacheHits.sum();
+  }
+
+  /**
+   * Returns the number of times a result of the {@link #matches(TypeMirror, TypeMirror)} method that could have been
+   * cached was not found in this {@link Assignability}'s cache.
+   *
+   * <p>If this {@link Assignability} does not cache results, this method returns {@code 0L}.</p>
+   *
+   * @return the number of cache misses
+   *
+   * @see #Assignability(TypeAndElementSource, int)
+   */
+  public final long cacheMisses() {
+    return this.cacheMisses.sum();
+  }
+
   /**
    * Returns {@code true} if and only if at least one {@link TypeMirror} present in the supplied {@code payloads}
    * argument {@linkplain #matches(TypeMirror, TypeMirror) matches} the supplied {@code receiver} argument.
@@ -163,12 +253,32 @@ public final class Assignability implements Constable {
    *
    * @exception NullPointerException if either argument is {@code null}
    */
-  // Is the payload assignable to the receiver? That is, does the payload "match the receiver", in CDI parlance?
   public final boolean matches(final TypeMirror receiver, final TypeMirror payload) {
+    if (receiver == Objects.requireNonNull(payload, "payload")) {
+      return true;
+    } else if (this.cache == null || !(receiver instanceof DelegatingTypeMirror) || !(payload instanceof DelegatingTypeMirror)) {
+      return this.computeMatches(receiver, payload);
+    }
+    final Key key = new Key(receiver, payload);
+    final Boolean cachedResult = this.cache.get(key);
+    if (cachedResult != null) {
+      this.cacheHits.increment();
+      return cachedResult.booleanValue();
+    }
+    this.cacheMisses.increment();
+    // Deliberately computed outside of any map operation: computeMatches(TypeMirror, TypeMirror) may recurse into this
+    // method.
+    final boolean result = this.computeMatches(receiver, payload);
+    this.cache.putIfAbsent(key, Boolean.valueOf(result));
+    return result;
+  }
+
+  // Is the payload assignable to the receiver? That is, does the payload "match the receiver", in CDI parlance?
+  private final boolean computeMatches(final TypeMirror receiver, final TypeMirror payload) {
     // "A bean is assignable to a given injection point if:
     //
     // "The bean has a bean type [payload] that matches the required type [receiver]. For this purpose..."
-    return receiver == Objects.requireNonNull(payload, "payload") || switch (receiver.getKind()) {
+    return switch (receiver.getKind()) {
       // "...primitive types are considered to match their corresponding wrapper types in java.lang..."
       case BOOLEAN -> payload.getKind() == TypeKind.BOOLEAN || declaredTypeNamed(payload, "java.lang.Boolean");
       case BYTE    -> payload.getKind() == TypeKind.BYTE    || declaredTypeNamed(payload, "java.lang.Byte");
@@ -800,4 +910,45 @@ public final class Assignability implements Constable {
     return t.getKind() == TypeKind.ARRAY ? elementType(((ArrayType)t).getComponentType()) : t;
   }
 
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A (receiver, payload) pair whose hash code, which for DelegatingTypeMirrors may be expensive, is computed once.
+  private static final class Key {
+
+    private final TypeMirror receiver;
+
+    private final TypeMirror payload;
+
+    private final int hashCode;
+
+    private Key(final TypeMirror receiver, final TypeMirror payload) {
+      super();
+      this.receiver = receiver;
+      this.payload = payload;
+      this.hashCode = 31 * receiver.hashCode() + payload.hashCode();
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other != null && other.getClass() == this.getClass()) {
+        final Key her = (Key)other;
+        return this.hashCode == her.hashCode && this.receiver.equals(her.receiver) && this.payload.equals(her.payload);
+      } else {
+        return false;
+      }
+    }
+
+  }
+
 }
@@ -0,0 +1,398 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.microbean.qualifier.NamedAttributeMap;
+
+import static org.microbean.bean.InterceptorBindings.anyInterceptorBinding;
+import static org.microbean.bean.InterceptorBindings.interceptorBinding;
+import static org.microbean.bean.Qualifiers.anyQualifier;
+import static org.microbean.bean.Qualifiers.defaultQualifier;
+import static org.microbean.bean.Qualifiers.qualifier;
+
+/**
+ * An immutable {@link List} of {@link NamedAttributeMap}s that carries precomputed partitions and signatures of the
+ * qualifiers and interceptor bindings it contains.
+ *
+ * <p>The {@linkplain #qualifiers() qualifier} and {@linkplain #interceptorBindings() interceptor binding} partitions are
+ * computed once, at construction time, and are returned thereafter without allocation.</p>
+ *
+ * <p>Every distinct {@link NamedAttributeMap} (as determined by its {@link NamedAttributeMap#equals(Object)} method) is
+ * interned to a dense {@code int} identifier. Each signature consists of a sorted array of such identifiers together
+ * with a {@code long} mask with one bit set per identifier (modulo 64), so that most mismatches can be ruled out with a
+ * single bitwise operation, and the remainder decided without allocation.</p>
+ *
+ * <p>The interner holds its {@link NamedAttributeMap}s weakly. An {@link AttributeList} holds the canonical instance
+ * of each {@link NamedAttributeMap} it interns in place of the one it was supplied, so an identifier remains valid for
+ * exactly as long as some {@link AttributeList} that uses it is reachable, and no longer.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson" target="_top">Laird Nelson</a>
+ *
+ * @see BeanSelectionCriteria#selects(Collection, Collection)
+ */
+final class AttributeList extends AbstractList<NamedAttributeMap<?>> implements RandomAccess {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int[] EMPTY_INT_ARRAY = new int[0];
+
+  private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+  private static final ReferenceQueue<NamedAttributeMap<?>> INTERNED_QUEUE = new ReferenceQueue<>();
+
+  // Canonical instances, held weakly, and their identifiers; see #id(NamedAttributeMap[], int).
+  private static final ConcurrentMap<Interned, Interned> INTERNED = new ConcurrentHashMap<>();
+
+  // Strongly reachable for the life of this class so that the identifiers below remain valid.
+  private static final NamedAttributeMap<?>[] WELL_KNOWN =
+    new NamedAttributeMap<?>[] { anyQualifier(), defaultQualifier(), anyInterceptorBinding() };
+
+  private static final int ANY_QUALIFIER_ID = id(WELL_KNOWN, 0);
+
+  private static final int DEFAULT_QUALIFIER_ID = id(WELL_KNOWN, 1);
+
+  private static final int ANY_INTERCEPTOR_BINDING_ID = id(WELL_KNOWN, 2);
+
+  static final AttributeList EMPTY = new AttributeList(new NamedAttributeMap<?>[0]);
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final NamedAttributeMap<?>[] elements;
+
+  private final List<NamedAttributeMap<?>> qualifiers;
+
+  private final List<NamedAttributeMap<?>> interceptorBindings;
+
+  private final int qualifierCount;
+
+  private final long qualifierMask;
+
+  // Sorted and distinct.
+  private final int[] qualifierIds;
+
+  private final int interceptorBindingCount;
+
+  private final long interceptorBindingMask;
+
+  // Sorted and distinct.
+  private final int[] interceptorBindingIds;
+
+  // The hash code of the BeanSelectionCriteria whose attributes this is, or 0; see #withCriteriaHashCode(int).
+  private final int criteriaHashCode;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private AttributeList(final NamedAttributeMap<?>[] elements) {
+    super();
+    this.elements = elements;
+    final NamedAttributeMap<?>[] qs = new NamedAttributeMap<?>[elements.length];
+    final NamedAttributeMap<?>[] ibs = new NamedAttributeMap<?>[elements.length];
+    final int[] qids = new int[elements.length];
+    final int[] ibids = new int[elements.length];
+    int qc = 0;
+    int ibc = 0;
+    long qm = 0L;
+    long ibm = 0L;
+    for (int i = 0; i < elements.length; i++) {
+      final boolean q = qualifier(elements[i]);
+      final boolean ib = interceptorBinding(elements[i]);
+      if (q || ib) {
+        final int id = id(elements, i); // replaces elements[i] with its canonical instance
+        if (q) {
+          qs[qc] = elements[i];
+          qids[qc++] = id;
+          qm |= 1L << id;
+        }
+        if (ib) {
+          ibs[ibc] = elements[i];
+          ibids[ibc++] = id;
+          ibm |= 1L << id;
+        }
+      }
+    }
+    this.qualifiers = qc == elements.length ? this : List.of(Arrays.copyOf(qs, qc));
+    this.interceptorBindings = ibc == elements.length ? this : List.of(Arrays.copyOf(ibs, ibc));
+    this.qualifierCount = qc;
+    this.qualifierMask = qm;
+    this.qualifierIds = sortedDistinct(qids, qc);
+    this.interceptorBindingCount = ibc;
+    this.interceptorBindingMask = ibm;
+    this.interceptorBindingIds = sortedDistinct(ibids, ibc);
+    this.criteriaHashCode = 0;
+  }
+
+  private AttributeList(final AttributeList al, final int criteriaHashCode) {
+    super();
+    this.elements = al.elements;
+    this.qualifiers = al.qualifiers;
+    this.interceptorBindings = al.interceptorBindings;
+    this.qualifierCount = al.qualifierCount;
+    this.qualifierMask = al.qualifierMask;
+    this.qualifierIds = al.qualifierIds;
+    this.interceptorBindingCount = al.interceptorBindingCount;
+    this.interceptorBindingMask = al.interceptorBindingMask;
+    this.interceptorBindingIds = al.interceptorBindingIds;
+    this.criteriaHashCode = criteriaHashCode;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override // AbstractList<NamedAttributeMap<?>>
+  public final NamedAttributeMap<?> get(final int index) {
+    return this.elements[index];
+  }
+
+  @Override // AbstractCollection<NamedAttributeMap<?>>
+  public final int size() {
+    return this.elements.length;
+  }
+
+  /**
+   * Returns an immutable {@link List} of those elements of this {@link AttributeList} that are {@linkplain
+   * Qualifiers#qualifier(NamedAttributeMap) qualifiers}, in order.
+   *
+   * @return an immutable {@link List}; never {@code null}
+   */
+  final List<NamedAttributeMap<?>> qualifiers() {
+    return this.qualifiers;
+  }
+
+  /**
+   * Returns an immutable {@link List} of those elements of this {@link AttributeList} that are {@linkplain
+   * InterceptorBindings#interceptorBinding(NamedAttributeMap) interceptor bindings}, in order.
+   *
+   * @return an immutable {@link List}; never {@code null}
+   */
+  final List<NamedAttributeMap<?>> interceptorBindings() {
+    return this.interceptorBindings;
+  }
+
+  final boolean qualifiersEmpty() {
+    return this.qualifierCount == 0;
+  }
+
+  final boolean containsAnyOrDefaultQualifier() {
+    return this.containsQualifier(ANY_QUALIFIER_ID) || this.containsQualifier(DEFAULT_QUALIFIER_ID);
+  }
+
+  final boolean containsDefaultQualifier() {
+    return this.containsQualifier(DEFAULT_QUALIFIER_ID);
+  }
+
+  // Does this AttributeList contain every qualifier that other contains?
+  final boolean containsAllQualifiers(final AttributeList other) {
+    return
+      (other.qualifierMask & ~this.qualifierMask) == 0L &&
+      containsAll(this.qualifierIds, other.qualifierIds);
+  }
+
+  final int interceptorBindingCount() {
+    return this.interceptorBindingCount;
+  }
+
+  // Is the sole interceptor binding in this AttributeList the "any" interceptor binding?
+  final boolean soleAnyInterceptorBinding() {
+    return this.interceptorBindingCount == 1 && this.interceptorBindingIds[0] == ANY_INTERCEPTOR_BINDING_ID;
+  }
+
+  // Does this AttributeList contain the same number of interceptor bindings as other, each of which is contained by
+  // other, and vice versa?
+  final boolean sameInterceptorBindings(final AttributeList other) {
+    return
+      this.interceptorBindingCount == other.interceptorBindingCount &&
+      this.interceptorBindingMask == other.interceptorBindingMask &&
+      Arrays.equals(this.interceptorBindingIds, other.interceptorBindingIds);
+  }
+
+  // Returns an AttributeList equal to this one that carries the supplied BeanSelectionCriteria hash code. A record
+  // cannot declare instance fields other than its components, so BeanSelectionCriteria caches its hash code here.
+  final AttributeList withCriteriaHashCode(final int criteriaHashCode) {
+    return new AttributeList(this, criteriaHashCode);
+  }
+
+  final int criteriaHashCode() {
+    return this.criteriaHashCode;
+  }
+
+  private final boolean containsQualifier(final int id) {
+    return (this.qualifierMask & 1L << id) != 0L && Arrays.binarySearch(this.qualifierIds, id) >= 0;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns an {@link AttributeList} with the contents of the supplied {@link Collection}, in iteration order.
+   *
+   * @param c a {@link Collection} of {@link NamedAttributeMap}s; must not be {@code null} and must not contain {@code
+   * null} elements
+   *
+   * @return an {@link AttributeList}; never {@code null}; {@code c} itself if it is already an {@link AttributeList}
+   *
+   * @exception NullPointerException if {@code c} is {@code null} or contains {@code null} elements
+   */
+  static final AttributeList of(final Collection<? extends NamedAttributeMap<?>> c) {
+    if (c instanceof AttributeList al) {
+      return al;
+    } else if (c.isEmpty()) {
+      return EMPTY;
+    }
+    final NamedAttributeMap<?>[] elements = c.toArray(new NamedAttributeMap<?>[0]);
+    for (final NamedAttributeMap<?> a : elements) {
+      Objects.requireNonNull(a, "c contains null");
+    }
+    return new AttributeList(elements);
+  }
+
+  // Replaces as[index] with its canonical instance, which the caller must keep strongly reachable for as long as it
+  // relies on the returned identifier, and returns that instance's identifier.
+  private static final int id(final NamedAttributeMap<?>[] as, final int index) {
+    Reference<? extends NamedAttributeMap<?>> r;
+    while ((r = INTERNED_QUEUE.poll()) != null) {
+      INTERNED.remove(r);
+    }
+    final NamedAttributeMap<?> a = as[index];
+    Interned candidate = null;
+    while (true) {
+      Interned existing = INTERNED.get(candidate == null ? new Interned(a, -1, null) : candidate);
+      if (existing == null) {
+        if (candidate == null) {
+          // Identifiers are never reused, so one whose NamedAttributeMap has been collected cannot be confused with a
+          // new one.
+          candidate = new Interned(a, NEXT_ID.getAndIncrement(), INTERNED_QUEUE);
+        }
+        existing = INTERNED.putIfAbsent(candidate, candidate);
+        if (existing == null) {
+          return candidate.id;
+        }
+      }
+      final NamedAttributeMap<?> canonical = existing.get();
+      if (canonical != null) {
+        as[index] = canonical;
+        return existing.id;
+      }
+      // Cleared but not yet expunged.
+      INTERNED.remove(existing, existing);
+    }
+  }
+
+  private static final int[] sortedDistinct(final int[] ids, final int length) {
+    if (length == 0) {
+      return EMPTY_INT_ARRAY;
+    }
+    Arrays.sort(ids, 0, length);
+    int distinct = 1;
+    for (int i = 1; i < length; i++) {
+      if (ids[i] != ids[distinct - 1]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return Arrays.copyOf(ids, distinct);
+  }
+
+  // Do the sorted, distinct ids in container include all of the sorted, distinct ids in contained?
+  private static final boolean containsAll(final int[] container, final int[] contained) {
+    if (contained.length > container.length) {
+      return false;
+    }
+    int i = 0;
+    for (final int id : contained) {
+      while (i < container.length && container[i] < id) {
+        i++;
+      }
+      if (i == container.length || container[i] != id) {
+        return false;
+      }
+      i++;
+    }
+    return true;
+  }
+
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A weak reference to a canonical NamedAttributeMap and its identifier. Two are equal when their referents are
+  // equal.
+  private static final class Interned extends WeakReference<NamedAttributeMap<?>> {
+
+    private final int id;
+
+    private final int hashCode;
+
+    private Interned(final NamedAttributeMap<?> a, final int id, final ReferenceQueue<? super NamedAttributeMap<?>> q) {
+      super(a, q);
+      this.id = id;
+      this.hashCode = a.hashCode();
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other != null && other.getClass() == this.getClass()) {
+        final NamedAttributeMap<?> mine = this.get();
+        final NamedAttributeMap<?> hers = ((Interned)other).get();
+        return mine != null && hers != null && mine.equals(hers);
+      } else {
+        return false;
+      }
+    }
+
+  }
+
+}
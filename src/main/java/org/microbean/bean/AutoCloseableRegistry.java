@@ -13,6 +13,10 @@
  */
 package org.microbean.bean;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 /**
  * A {@link Cloneable} reigstry of {@link AutoCloseable} instances that itself is {@link AutoCloseable}.
  *
@@ -60,6 +64,35 @@ public interface AutoCloseableRegistry extends AutoCloseable, Cloneable {
   @Override // AutoCloseable
   public void close();
 
+  /**
+   * Closes this {@link AutoCloseableRegistry} and {@linkplain AutoCloseable#close() closes} its {@linkplain
+   * #register(AutoCloseable) registrants} using the supplied {@link Executor}, and returns a {@link CompletionStage}
+   * that completes when they have all been closed.
+   *
+   * <p>Implementations may close registrants concurrently, but must honor any ordering constraints they support, and
+   * must complete the returned {@link CompletionStage} exceptionally with the same exception, bearing the same
+   * suppressed exceptions, that {@link #close()} would have thrown.</p>
+   *
+   * <p>The default implementation {@linkplain CompletableFuture#runAsync(Runnable, Executor) runs} {@link #close()}
+   * using the supplied {@link Executor}.</p>
+   *
+   * @param executor the {@link Executor} on which to close registrants; must not be {@code null}
+   *
+   * @return a {@link CompletionStage}; never {@code null}
+   *
+   * @exception NullPointerException if {@code executor} is {@code null}
+   *
+   * @idempotency Implementations of this method must be idempotent with respect to closing; a {@link CompletionStage}
+   * returned after this {@link AutoCloseableRegistry} has been closed completes normally.
+   *
+   * @threadsafety Implementations of this method must be safe for concurrent use by multiple threads.
+   *
+   * @see #close()
+   */
+  public default CompletionStage<Void> closeAsync(final Executor executor) {
+    return CompletableFuture.runAsync(this::close, executor);
+  }
+
   /**
    * Returns {@code true} if and only if this {@link AutoCloseableRegistry} has been {@linkplain #close() closed}.
    *
@@ -18,12 +18,17 @@ import java.lang.constant.DynamicConstantDesc;
 import java.lang.constant.MethodHandleDesc;
 import java.lang.constant.MethodTypeDesc;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.PrimitiveType;
@@ -49,9 +54,6 @@ import static java.lang.constant.DirectMethodHandleDesc.Kind.STATIC;
 
 import static org.microbean.bean.ConstantDescs.CD_Assignability;
 import static org.microbean.bean.ConstantDescs.CD_BeanSelectionCriteria;
-import static org.microbean.bean.InterceptorBindings.anyInterceptorBinding;
-import static org.microbean.bean.Qualifiers.anyQualifier;
-import static org.microbean.bean.Qualifiers.defaultQualifier;
 import static org.microbean.bean.Qualifiers.defaultQualifiers;
 
 import static org.microbean.lang.ConstantDescs.CD_TypeMirror;
@@ -70,10 +72,10 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
 
   private static final Equality EQUALITY_IGNORING_ANNOTATIONS = new Equality(false);
 
+  private static final ReferenceQueue<BeanSelectionCriteria> INTERNED_QUEUE = new ReferenceQueue<>();
 
-  /*
-   * Instance fields.
-   */
+  // Canonical instances, held weakly; see #of(Assignability, TypeMirror, Collection, boolean).
+  private static final ConcurrentMap<Interned, Interned> INTERNED = new ConcurrentHashMap<>();
 
 
   /*
@@ -104,7 +106,13 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
       assignability = new Assignability();
     }
     type = DelegatingTypeMirror.of(validateType(type, box), assignability.typeAndElementSource(), SameTypeEquality.INSTANCE);
-    attributes = List.copyOf(attributes);
+    final AttributeList al = AttributeList.of(attributes);
+    int hashCode = 17;
+    hashCode = 31 * hashCode + type.hashCode();
+    hashCode = 31 * hashCode + al.hashCode();
+    hashCode = 31 * hashCode + (box ? 1 : 0);
+    // The hash code, which is comparatively expensive to compute, is cached on the attributes; see #hashCode().
+    attributes = al.withCriteriaHashCode(hashCode);
   }
 
 
@@ -113,12 +121,43 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
    */
 
 
+  /**
+   * Returns the canonical {@link BeanSelectionCriteria} that is {@linkplain #equals(Object) equal to} this one and
+   * that has the same {@link Assignability}, which may be this very {@link BeanSelectionCriteria}.
+   *
+   * <p>Canonical instances are held weakly. Comparing two canonical instances for equality is usually an identity
+   * comparison.</p>
+   *
+   * @return the canonical {@link BeanSelectionCriteria}; never {@code null}
+   *
+   * @see #of(Assignability, TypeMirror, Collection, boolean)
+   */
+  public final BeanSelectionCriteria intern() {
+    Reference<? extends BeanSelectionCriteria> r;
+    while ((r = INTERNED_QUEUE.poll()) != null) {
+      INTERNED.remove(r);
+    }
+    final Interned candidate = new Interned(this);
+    while (true) {
+      final Interned existing = INTERNED.putIfAbsent(candidate, candidate);
+      if (existing == null) {
+        return this;
+      }
+      final BeanSelectionCriteria canonical = existing.get();
+      if (canonical != null) {
+        return canonical;
+      }
+      // Cleared but not yet expunged.
+      INTERNED.remove(existing, existing);
+    }
+  }
+
   public final List<NamedAttributeMap<?>> interceptorBindings() {
-    return InterceptorBindings.interceptorBindings(this.attributes());
+    return AttributeList.of(this.attributes()).interceptorBindings();
   }
 
   public final List<NamedAttributeMap<?>> qualifiers() {
-    return Qualifiers.qualifiers(this.attributes());
+    return AttributeList.of(this.attributes()).qualifiers();
   }
 
   public final boolean selects(final Id id) {
@@ -147,41 +186,37 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
 
   public final boolean selects(final Collection<? extends TypeMirror> types,
                                final Collection<? extends NamedAttributeMap<?>> attributes) {
-    return this.selectsQualifiers(attributes) && this.selectsInterceptorBindings(attributes) && this.selectsTypeFrom(types);
+    // Qualifiers and interceptor bindings are compared using the signatures precomputed by AttributeList, which rule out
+    // most mismatches before the (comparatively expensive) type check runs.
+    final AttributeList her = AttributeList.of(attributes);
+    return this.selectsQualifiers(her) && this.selectsInterceptorBindings(her) && this.selectsTypeFrom(types);
   }
 
-  private final boolean selectsInterceptorBindings(final Collection<? extends NamedAttributeMap<?>> attributes) {
-    final List<? extends NamedAttributeMap<?>> herBindings = InterceptorBindings.interceptorBindings(attributes);
-    if (herBindings.isEmpty()) {
-      return this.interceptorBindings().isEmpty();
-    } else if (herBindings.size() == 1 && anyInterceptorBinding(herBindings.iterator().next())) {
+  private final boolean selectsInterceptorBindings(final AttributeList her) {
+    final AttributeList mine = AttributeList.of(this.attributes());
+    if (her.interceptorBindingCount() == 0) {
+      return mine.interceptorBindingCount() == 0;
+    } else if (her.soleAnyInterceptorBinding()) {
       return true;
     }
-    final List<NamedAttributeMap<?>> ibs = this.interceptorBindings();
-    return ibs.size() == herBindings.size() && ibs.containsAll(herBindings) && herBindings.containsAll(ibs);
+    return mine.sameInterceptorBindings(her);
   }
 
-  private final boolean selectsQualifiers(final Collection<? extends NamedAttributeMap<?>> attributes) {
-    final Collection<? extends NamedAttributeMap<?>> myQualifiers = this.qualifiers();
-    final List<? extends NamedAttributeMap<?>> herQualifiers = Qualifiers.qualifiers(attributes);
-    if (myQualifiers.isEmpty()) {
+  private final boolean selectsQualifiers(final AttributeList her) {
+    final AttributeList mine = AttributeList.of(this.attributes());
+    if (mine.qualifiersEmpty()) {
       // Pretend I had [@Default] and she had [@Default, @Any].
-      return herQualifiers.isEmpty() || containsAll(herQualifiers::contains, defaultQualifiers());
-    } else if (herQualifiers.isEmpty()) {
-      for (final NamedAttributeMap<?> myQualifier : myQualifiers) {
-        if (anyQualifier(myQualifier) || defaultQualifier(myQualifier)) {
-          // I had [@Default] or [@Any] or [@Default, @Any]; pretend she had [@Default, @Any].
-          return true;
-        }
-      }
-      return false;
+      return her.qualifiersEmpty() || her.containsDefaultQualifier();
+    } else if (her.qualifiersEmpty()) {
+      // If I had [@Default] or [@Any] or [@Default, @Any], pretend she had [@Default, @Any].
+      return mine.containsAnyOrDefaultQualifier();
     } else {
-      return containsAll(herQualifiers::contains, myQualifiers);
+      return her.containsAllQualifiers(mine);
     }
   }
 
   final boolean selectsTypeFrom(final Collection<? extends TypeMirror> types) {
-    return this.assignability.oneMatches(this.type(), types);
+    return this.assignability().oneMatches(this.type(), types);
   }
 
   @Override // Constable
@@ -201,16 +236,12 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
                                                                       assignabilityDesc,
                                                                       typeDesc,
                                                                       attributesDesc,
-                                                                      this.box ? TRUE : FALSE))));
+                                                                      this.box() ? TRUE : FALSE))));
   }
 
   @Override // Object
   public final int hashCode() {
-    int hashCode = 17;
-    hashCode = 31 * hashCode + this.type().hashCode();
-    hashCode = 31 * hashCode + this.attributes().hashCode();
-    hashCode = 31 * hashCode + (this.box() ? 1 : 0);
-    return hashCode;
+    return ((AttributeList)this.attributes()).criteriaHashCode();
   }
 
   @Override // Object
@@ -220,6 +251,7 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
     } else if (other != null && other.getClass() == this.getClass()) {
       final BeanSelectionCriteria her = (BeanSelectionCriteria)other;
       return
+        this.hashCode() == her.hashCode() &&
         Objects.equals(this.type(), her.type()) &&
         Objects.equals(this.attributes(), her.attributes()) &&
         Objects.equals(this.box(), her.box());
@@ -266,21 +298,66 @@ public final record BeanSelectionCriteria(Assignability assignability, // not in
     return t.getKind() == TypeKind.ARRAY ? elementType(componentType(t)) : t;
   }
 
-  private static final boolean containsAll(final Predicate<? super Object> p, final Iterable<?> i) {
-    for (final Object o : i) {
-      if (!p.test(o)) {
-        return false;
-      }
-    }
-    return true;
-  }
-
+  /**
+   * Returns the canonical {@link BeanSelectionCriteria} built from the supplied arguments.
+   *
+   * @param a an {@link Assignability}; may be {@code null}
+   *
+   * @param type a {@link TypeMirror}; must not be {@code null}
+   *
+   * @param attributes a {@link Collection} of {@link NamedAttributeMap}s; must not be {@code null}
+   *
+   * @param box whether primitive types should be boxed
+   *
+   * @return a canonical {@link BeanSelectionCriteria}; never {@code null}
+   *
+   * @exception NullPointerException if {@code type} or {@code attributes} is {@code null}
+   *
+   * @see #intern()
+   */
   // Called by describeConstable().
   public static final BeanSelectionCriteria of(final Assignability a,
                                                final TypeMirror type,
                                                final Collection<? extends NamedAttributeMap<?>> attributes,
                                                final boolean box) {
-    return new BeanSelectionCriteria(a, type, List.copyOf(attributes), box);
+    return new BeanSelectionCriteria(a, type, List.copyOf(attributes), box).intern();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A weak reference to a canonical BeanSelectionCriteria. Two are equal when their referents are equal and share an
+  // Assignability, since the Assignability, though not part of equality, governs selection.
+  private static final class Interned extends WeakReference<BeanSelectionCriteria> {
+
+    private final int hashCode;
+
+    private Interned(final BeanSelectionCriteria bsc) {
+      super(bsc, INTERNED_QUEUE);
+      this.hashCode = bsc.hashCode();
+    }
+
+    @Override // Object
+    public final int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other != null && other.getClass() == this.getClass()) {
+        final BeanSelectionCriteria mine = this.get();
+        final BeanSelectionCriteria hers = ((Interned)other).get();
+        return mine != null && hers != null && mine.assignability() == hers.assignability() && mine.equals(hers);
+      } else {
+        return false;
+      }
+    }
+
   }
 
 }
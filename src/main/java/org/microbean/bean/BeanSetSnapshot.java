@@ -0,0 +1,547 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDesc;
+import java.lang.constant.DirectMethodHandleDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.function.Supplier;
+
+import static java.lang.constant.ConstantDescs.BSM_PRIMITIVE_CLASS;
+import static java.lang.constant.ConstantDescs.CD_Class;
+import static java.lang.constant.ConstantDescs.CD_Object;
+
+import static org.microbean.bean.ConstantDescs.CD_DefaultBeanSet;
+
+/**
+ * A build-time utility that resolves every {@link Dependency} of every {@link Bean} in a {@link DefaultBeanSet} and
+ * emits a class file that rebuilds an equivalent, fully primed {@link DefaultBeanSet} when loaded.
+ *
+ * <p>The emitted class has a single {@code public static DefaultBeanSet beanSet()} method whose body loads (using the
+ * {@code ldc} instruction) a dynamic constant produced by {@link DefaultBeanSet#describeConstable()}. Resolving that
+ * constant invokes the {@link DefaultBeanSet#DefaultBeanSet(Assignability, Collection, Map, Alternate.Resolver)}
+ * constructor with all resolutions performed at build time as its {@code preCalculatedResolutions} argument. The
+ * constant is resolved at most once, the first time {@code beanSet()} is invoked, and the same {@link DefaultBeanSet}
+ * is returned thereafter.</p>
+ *
+ * <p>Every {@link Bean}, {@link Factory} and {@link BeanSelectionCriteria} involved must be describable, and every
+ * constructor and method referenced by their descriptions must be accessible to the emitted class.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #main(String[])
+ *
+ * @see DefaultBeanSet#describeConstable()
+ */
+public final class BeanSetSnapshot {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int CLASS_FILE_VERSION = 65; // Java 21
+
+  private static final int ACC_PUBLIC = 0x0001;
+
+  private static final int ACC_PRIVATE = 0x0002;
+
+  private static final int ACC_STATIC = 0x0008;
+
+  private static final int ACC_FINAL = 0x0010;
+
+  private static final int ACC_SUPER = 0x0020;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private BeanSetSnapshot() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Resolves the {@link BeanSelectionCriteria} of every {@link Dependency} of every {@link Bean} in the supplied {@link
+   * DefaultBeanSet}, thus priming its resolution cache, and returns it.
+   *
+   * @param beanSet a {@link DefaultBeanSet}; must not be {@code null}
+   *
+   * @return {@code beanSet}
+   *
+   * @exception NullPointerException if {@code beanSet} is {@code null}
+   *
+   * @exception UnsatisfiedResolutionException if a {@link Dependency} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link Dependency} could not be resolved unambiguously
+   */
+  public static final DefaultBeanSet prime(final DefaultBeanSet beanSet) {
+    for (final Bean<?> b : beanSet.beans()) {
+      for (final Dependency d : b.dependencies()) {
+        beanSet.bean(d.beanSelectionCriteria());
+      }
+    }
+    return beanSet;
+  }
+
+  /**
+   * Returns the bytes of a class file declaring a class named {@code className} whose {@code public static
+   * DefaultBeanSet beanSet()} method returns a {@link DefaultBeanSet} equivalent to the supplied one, including its
+   * resolutions.
+   *
+   * @param beanSet a {@link DefaultBeanSet}, usually one that has been {@linkplain #prime(DefaultBeanSet) primed}; must
+   * not be {@code null}
+   *
+   * @param className the binary name of the class to generate; must not be {@code null}
+   *
+   * @return a non-{@code null} {@code byte} array
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code beanSet} cannot be {@linkplain DefaultBeanSet#describeConstable()
+   * described}
+   *
+   * @exception IllegalStateException if the description is too large to fit in a single class file
+   */
+  public static final byte[] generate(final DefaultBeanSet beanSet, final String className) {
+    return generate(beanSet.describeConstable()
+                    .orElseThrow(() -> new IllegalArgumentException("beanSet cannot be described: " + beanSet)),
+                    className);
+  }
+
+  static final byte[] generate(final DynamicConstantDesc<? extends DefaultBeanSet> beanSetDesc, final String className) {
+    final ConstantPool cp = new ConstantPool();
+    final int thisClass = cp.classEntry(ClassDesc.of(className));
+    final int superClass = cp.classEntry(CD_Object);
+    final int initName = cp.utf8("<init>");
+    final int initDescriptor = cp.utf8("()V");
+    final int objectInit = cp.memberRef(ConstantPool.METHODREF, CD_Object, "<init>", "()V");
+    final int beanSetName = cp.utf8("beanSet");
+    final int beanSetDescriptor = cp.utf8(MethodTypeDesc.of(CD_DefaultBeanSet).descriptorString());
+    final int beanSet = cp.constant(beanSetDesc);
+    final int code = cp.utf8("Code");
+    final int bootstrapMethods = cp.utf8("BootstrapMethods");
+
+    final ClassFileBuffer b = new ClassFileBuffer();
+    b.u4(0xCAFEBABE);
+    b.u2(0); // minor version
+    b.u2(CLASS_FILE_VERSION);
+    cp.writeTo(b);
+    b.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+    b.u2(thisClass);
+    b.u2(superClass);
+    b.u2(0); // interfaces
+    b.u2(0); // fields
+    b.u2(2); // methods
+
+    // private <init>() { super(); }
+    b.u2(ACC_PRIVATE);
+    b.u2(initName);
+    b.u2(initDescriptor);
+    b.u2(1); // attributes
+    b.code(code, 1, 1, new byte[] {
+        0x2a, // aload_0
+        (byte)0xb7, (byte)(objectInit >> 8), (byte)objectInit, // invokespecial java/lang/Object.<init>()V
+        (byte)0xb1 // return
+      });
+
+    // public static DefaultBeanSet beanSet() { return ldc(beanSetDesc); }
+    b.u2(ACC_PUBLIC | ACC_STATIC);
+    b.u2(beanSetName);
+    b.u2(beanSetDescriptor);
+    b.u2(1); // attributes
+    b.code(code, 1, 0, new byte[] {
+        0x13, (byte)(beanSet >> 8), (byte)beanSet, // ldc_w
+        (byte)0xb0 // areturn
+      });
+
+    b.u2(1); // attributes
+    cp.writeBootstrapMethodsTo(b, bootstrapMethods);
+    return b.toByteArray();
+  }
+
+  /**
+   * Creates a {@link DefaultBeanSet}, {@linkplain #prime(DefaultBeanSet) primes} it, {@linkplain
+   * #generate(DefaultBeanSet, String) generates} a class file that will rebuild it, and writes that class file beneath
+   * an output directory.
+   *
+   * <p>The {@code args} array must contain exactly three elements:</p>
+   *
+   * <ol>
+   *
+   * <li>The binary name of a class with a zero-argument constructor that implements {@link Supplier}; its {@link
+   * Supplier#get() get()} method must return either a {@link DefaultBeanSet} or a {@link Collection} of {@link
+   * Bean}s</li>
+   *
+   * <li>The binary name of the class to generate</li>
+   *
+   * <li>The output directory, such as {@code target/classes}</li>
+   *
+   * </ol>
+   *
+   * <p>The supplier class is loaded using the {@linkplain Thread#getContextClassLoader() context classloader}.</p>
+   *
+   * @param args the command line arguments; must not be {@code null}
+   *
+   * @exception IllegalArgumentException if {@code args} is malformed
+   *
+   * @exception IOException if the class file could not be written
+   *
+   * @exception ReflectiveOperationException if the supplier class could not be loaded or instantiated
+   *
+   * @exception ResolutionException if a {@link Dependency} could not be resolved
+   */
+  @SuppressWarnings("unchecked")
+  public static final void main(final String[] args) throws IOException, ReflectiveOperationException {
+    if (args == null || args.length != 3) {
+      throw new IllegalArgumentException("Usage: " + BeanSetSnapshot.class.getName() +
+                                         " <supplier class name> <generated class name> <output directory>");
+    }
+    final Object beans = ((Supplier<?>)Class.forName(args[0], true, Thread.currentThread().getContextClassLoader())
+                          .getDeclaredConstructor()
+                          .newInstance())
+      .get();
+    final DefaultBeanSet beanSet;
+    if (beans instanceof DefaultBeanSet dbs) {
+      beanSet = dbs;
+    } else if (beans instanceof Collection<?> c) {
+      beanSet = new DefaultBeanSet(null, (Collection<? extends Bean<?>>)c, null, null, false);
+    } else {
+      throw new IllegalArgumentException("args[0]: " + args[0] + "; supplied: " + beans);
+    }
+    final Path classFile = Path.of(args[2]).resolve(args[1].replace('.', '/') + ".class");
+    Files.createDirectories(classFile.getParent());
+    Files.write(classFile, generate(prime(beanSet), args[1]));
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class ClassFileBuffer extends ByteArrayOutputStream {
+
+    private ClassFileBuffer() {
+      super(1024);
+    }
+
+    private final void u1(final int i) {
+      this.write(i);
+    }
+
+    private final void u2(final int i) {
+      this.write(i >> 8);
+      this.write(i);
+    }
+
+    private final void u4(final int i) {
+      this.u2(i >> 16);
+      this.u2(i);
+    }
+
+    private final void u8(final long l) {
+      this.u4((int)(l >> 32));
+      this.u4((int)l);
+    }
+
+    // Modified UTF-8; see JVMS §4.4.7.
+    private final void utf(final String s) {
+      int length = 0;
+      for (int i = 0; i < s.length(); i++) {
+        final char c = s.charAt(i);
+        length += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+      }
+      if (length > 0xFFFF) {
+        throw new IllegalStateException("string too long: " + s);
+      }
+      this.u2(length);
+      for (int i = 0; i < s.length(); i++) {
+        final char c = s.charAt(i);
+        if (c != 0 && c < 0x80) {
+          this.u1(c);
+        } else if (c < 0x800) {
+          this.u1(0xC0 | c >> 6);
+          this.u1(0x80 | c & 0x3F);
+        } else {
+          this.u1(0xE0 | c >> 12);
+          this.u1(0x80 | c >> 6 & 0x3F);
+          this.u1(0x80 | c & 0x3F);
+        }
+      }
+    }
+
+    private final void code(final int codeAttributeName, final int maxStack, final int maxLocals, final byte[] code) {
+      this.u2(codeAttributeName);
+      this.u4(12 + code.length);
+      this.u2(maxStack);
+      this.u2(maxLocals);
+      this.u4(code.length);
+      this.writeBytes(code);
+      this.u2(0); // exception table
+      this.u2(0); // attributes
+    }
+
+  }
+
+  // A constant pool (JVMS §4.4) that deduplicates its entries, together with the contents of the BootstrapMethods
+  // attribute (JVMS §4.7.23) that its CONSTANT_Dynamic entries refer to.
+  private static final class ConstantPool {
+
+    private static final int UTF8 = 1;
+
+    private static final int INTEGER = 3;
+
+    private static final int FLOAT = 4;
+
+    private static final int LONG = 5;
+
+    private static final int DOUBLE = 6;
+
+    private static final int CLASS = 7;
+
+    private static final int STRING = 8;
+
+    private static final int FIELDREF = 9;
+
+    private static final int METHODREF = 10;
+
+    private static final int INTERFACE_METHODREF = 11;
+
+    private static final int NAME_AND_TYPE = 12;
+
+    private static final int METHOD_HANDLE = 15;
+
+    private static final int METHOD_TYPE = 16;
+
+    private static final int DYNAMIC = 17;
+
+    private final ClassFileBuffer entries;
+
+    private final Map<List<?>, Integer> indices;
+
+    private final List<List<Integer>> bootstrapMethods;
+
+    private final Map<List<Integer>, Integer> bootstrapMethodIndices;
+
+    private int count;
+
+    private ConstantPool() {
+      super();
+      this.entries = new ClassFileBuffer();
+      this.indices = new HashMap<>();
+      this.bootstrapMethods = new ArrayList<>();
+      this.bootstrapMethodIndices = new HashMap<>();
+      this.count = 1;
+    }
+
+    // Returns the index of a loadable constant (JVMS §4.4, Table 4.4-C) representing cd.
+    private final int constant(final ConstantDesc cd) {
+      return switch (cd) {
+      case String s -> this.string(s);
+      case Integer i -> this.integer(i.intValue());
+      case Long l -> this.long8(LONG, l.longValue());
+      case Float f -> this.float4(f.floatValue());
+      case Double d -> this.long8(DOUBLE, Double.doubleToRawLongBits(d.doubleValue()));
+      case ClassDesc c when c.isPrimitive() -> this.dynamic(DynamicConstantDesc.ofNamed(BSM_PRIMITIVE_CLASS, c.descriptorString(), CD_Class));
+      case ClassDesc c -> this.classEntry(c);
+      case MethodTypeDesc m -> this.methodType(m);
+      case DirectMethodHandleDesc m -> this.methodHandle(m);
+      case DynamicConstantDesc<?> d -> this.dynamic(d);
+      };
+    }
+
+    private final int utf8(final String s) {
+      final List<?> key = List.of(UTF8, s);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(UTF8);
+        this.entries.utf(s);
+      }
+      return index;
+    }
+
+    private final int string(final String s) {
+      final int utf8 = this.utf8(s);
+      return this.reference(STRING, utf8);
+    }
+
+    private final int integer(final int i) {
+      final List<?> key = List.of(INTEGER, i);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(INTEGER);
+        this.entries.u4(i);
+      }
+      return index;
+    }
+
+    private final int float4(final float f) {
+      final int bits = Float.floatToRawIntBits(f);
+      final List<?> key = List.of(FLOAT, bits);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(FLOAT);
+        this.entries.u4(bits);
+      }
+      return index;
+    }
+
+    private final int long8(final int tag, final long bits) {
+      final List<?> key = List.of(tag, bits);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 2); // longs and doubles occupy two entries
+        this.entries.u1(tag);
+        this.entries.u8(bits);
+      }
+      return index;
+    }
+
+    private final int classEntry(final ClassDesc c) {
+      final String descriptor = c.descriptorString();
+      // Array classes are named by their descriptors; all others by their internal names.
+      return this.reference(CLASS, this.utf8(c.isArray() ? descriptor : descriptor.substring(1, descriptor.length() - 1)));
+    }
+
+    private final int methodType(final MethodTypeDesc m) {
+      return this.reference(METHOD_TYPE, this.utf8(m.descriptorString()));
+    }
+
+    private final int nameAndType(final String name, final String descriptor) {
+      return this.reference(NAME_AND_TYPE, this.utf8(name), this.utf8(descriptor));
+    }
+
+    private final int memberRef(final int tag, final ClassDesc owner, final String name, final String descriptor) {
+      return this.reference(tag, this.classEntry(owner), this.nameAndType(name, descriptor));
+    }
+
+    private final int methodHandle(final DirectMethodHandleDesc m) {
+      final int tag = switch (m.kind()) {
+      case GETTER, SETTER, STATIC_GETTER, STATIC_SETTER -> FIELDREF;
+      default -> m.isOwnerInterface() ? INTERFACE_METHODREF : METHODREF;
+      };
+      final int member = this.memberRef(tag, m.owner(), m.methodName(), m.lookupDescriptor());
+      final List<?> key = List.of(METHOD_HANDLE, m.refKind(), member);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(METHOD_HANDLE);
+        this.entries.u1(m.refKind());
+        this.entries.u2(member);
+      }
+      return index;
+    }
+
+    private final int dynamic(final DynamicConstantDesc<?> d) {
+      final List<Integer> bootstrapMethod = new ArrayList<>(d.bootstrapArgsList().size() + 1);
+      bootstrapMethod.add(this.methodHandle(d.bootstrapMethod()));
+      for (final ConstantDesc arg : d.bootstrapArgsList()) {
+        bootstrapMethod.add(this.constant(arg));
+      }
+      Integer bootstrapMethodIndex = this.bootstrapMethodIndices.get(bootstrapMethod);
+      if (bootstrapMethodIndex == null) {
+        bootstrapMethodIndex = this.bootstrapMethods.size();
+        this.bootstrapMethods.add(bootstrapMethod);
+        this.bootstrapMethodIndices.put(bootstrapMethod, bootstrapMethodIndex);
+      }
+      return this.reference(DYNAMIC, bootstrapMethodIndex, this.nameAndType(d.constantName(), d.constantType().descriptorString()));
+    }
+
+    // Returns the index of an entry consisting of a tag followed by one u2.
+    private final int reference(final int tag, final int u2) {
+      final List<?> key = List.of(tag, u2);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(tag);
+        this.entries.u2(u2);
+      }
+      return index;
+    }
+
+    // Returns the index of an entry consisting of a tag followed by two u2s.
+    private final int reference(final int tag, final int u2a, final int u2b) {
+      final List<?> key = List.of(tag, u2a, u2b);
+      Integer index = this.indices.get(key);
+      if (index == null) {
+        index = this.add(key, 1);
+        this.entries.u1(tag);
+        this.entries.u2(u2a);
+        this.entries.u2(u2b);
+      }
+      return index;
+    }
+
+    private final int add(final List<?> key, final int slots) {
+      final int index = this.count;
+      if (index + slots > 0xFFFF) {
+        throw new IllegalStateException("too many constants");
+      }
+      this.count += slots;
+      this.indices.put(key, index);
+      return index;
+    }
+
+    private final void writeTo(final ClassFileBuffer b) {
+      b.u2(this.count);
+      b.writeBytes(this.entries.toByteArray());
+    }
+
+    private final void writeBootstrapMethodsTo(final ClassFileBuffer b, final int attributeName) {
+      int length = 2;
+      for (final List<Integer> bootstrapMethod : this.bootstrapMethods) {
+        length += 2 + 2 * bootstrapMethod.size();
+      }
+      b.u2(attributeName);
+      b.u4(length);
+      b.u2(this.bootstrapMethods.size());
+      for (final List<Integer> bootstrapMethod : this.bootstrapMethods) {
+        b.u2(bootstrapMethod.get(0)); // bootstrap_method_ref
+        b.u2(bootstrapMethod.size() - 1);
+        for (int i = 1; i < bootstrapMethod.size(); i++) {
+          b.u2(bootstrapMethod.get(i));
+        }
+      }
+    }
+
+  }
+
+}
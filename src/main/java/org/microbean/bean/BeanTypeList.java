@@ -13,9 +13,9 @@
  */
 package org.microbean.bean;
 
-import java.lang.constant.ClassDesc;
 import java.lang.constant.DynamicConstantDesc;
 import java.lang.constant.MethodHandleDesc;
+import java.lang.constant.MethodTypeDesc;
 
 import java.lang.System.Logger;
 
@@ -43,9 +43,12 @@ import org.microbean.lang.visitor.Visitors;
 import static java.lang.constant.ConstantDescs.BSM_INVOKE;
 import static java.lang.constant.ConstantDescs.CD_int;
 import static java.lang.constant.ConstantDescs.CD_List;
+import static java.lang.constant.DirectMethodHandleDesc.Kind.STATIC;
 
 import static java.lang.System.Logger.Level.WARNING;
 
+import static org.microbean.bean.ConstantDescs.CD_BeanTypeList;
+
 import static org.microbean.lang.Lang.typeAndElementSource;
 import static org.microbean.lang.Lang.sameTypeEquality;
 
@@ -53,6 +56,17 @@ public final class BeanTypeList extends ReferenceTypeList {
 
   private static final Logger LOGGER = System.getLogger(BeanTypeList.class.getName());
 
+  private static final Predicate<TypeMirror> LEGAL_BEAN_TYPE = BeanTypeList::legalBeanType;
+
+  private static final int CLOSURES_MAXIMUM_SIZE =
+    Math.max(0, Integer.getInteger(BeanTypeList.class.getName() + ".closuresMaximumSize", 4096));
+
+  // Closures computed with LEGAL_BEAN_TYPE; see #closure(TypeMirror, Predicate, Visitors). Bounded, since each entry
+  // strongly references a TypeAndElementSource and, through it, class loaders. Lookups take no lock. Null if caching
+  // is disabled.
+  private static final ClockCache<ClosureKey, BeanTypeList> CLOSURES =
+    CLOSURES_MAXIMUM_SIZE == 0 ? null : new ClockCache<>(CLOSURES_MAXIMUM_SIZE, null);
+
   public BeanTypeList(final TypeMirror type) {
     this(List.of(type), null, typeAndElementSource(), sameTypeEquality());
   }
@@ -89,12 +103,15 @@ public final class BeanTypeList extends ReferenceTypeList {
     return Constables.describeConstable(this.types(), Lang::describeConstable)
       .flatMap(typesDesc -> this.equality.describeConstable()
                .map(equalityDesc -> DynamicConstantDesc.of(BSM_INVOKE,
-                                                           MethodHandleDesc.ofConstructor(ClassDesc.of(this.getClass().getName()),
-                                                                                          CD_List,
-                                                                                          CD_int,
-                                                                                          CD_int,
-                                                                                          CD_int,
-                                                                                          CD_Equality),
+                                                           MethodHandleDesc.ofMethod(STATIC,
+                                                                                     CD_BeanTypeList,
+                                                                                     "of",
+                                                                                     MethodTypeDesc.of(CD_BeanTypeList,
+                                                                                                       CD_List,
+                                                                                                       CD_int,
+                                                                                                       CD_int,
+                                                                                                       CD_int,
+                                                                                                       CD_Equality)),
                                                            typesDesc,
                                                            this.classesIndex,
                                                            this.arraysIndex,
@@ -109,15 +126,15 @@ public final class BeanTypeList extends ReferenceTypeList {
 
 
   public static final BeanTypeList closure(final TypeMirror t) {
-    return closure(t, BeanTypeList::legalBeanType, new Visitors(typeAndElementSource()));
+    return closure(t, LEGAL_BEAN_TYPE, new Visitors(typeAndElementSource()));
   }
 
   public static final BeanTypeList closure(final TypeMirror t, final TypeAndElementSource tes) {
-    return closure(t, BeanTypeList::legalBeanType, new Visitors(tes));
+    return closure(t, LEGAL_BEAN_TYPE, new Visitors(tes));
   }
 
   public static final BeanTypeList closure(final TypeMirror t, final Visitors visitors) {
-    return closure(t, BeanTypeList::legalBeanType, visitors);
+    return closure(t, LEGAL_BEAN_TYPE, visitors);
   }
 
   public static final BeanTypeList closure(final TypeMirror t,
@@ -129,6 +146,14 @@ public final class BeanTypeList extends ReferenceTypeList {
   /**
    * Returns a non-{@code null} {@link BeanTypeList} containing the set of types {@code t} bears.
    *
+   * <p>Closures requested using the overloads of this method that do not accept a {@code typeFilter} are cached,
+   * keyed by the {@linkplain Visitors#typeAndElementSource() <code>TypeAndElementSource</code>} (in practice, by
+   * identity) and by {@code t} (by {@linkplain Lang#sameTypeEquality() type sameness}), so that the many beans that
+   * share a type share its closure. Closures computed with any other {@code typeFilter} are not cached. At most {@code
+   * 4096} closures, or the number given by the {@code org.microbean.bean.BeanTypeList.closuresMaximumSize} system
+   * property, are retained; those not used recently are discarded first, as approximated by the CLOCK algorithm, so
+   * that retrieving a cached closure never takes a lock.</p>
+   *
    * @param t the {@link TypeMirror} whose type closure will be returned as a {@link BeanTypeList}; must not be {@code
    * null}; must be either a {@linkplain TypeKind#DECLARED declared type}, an {@linkplain TypeKind#INTERSECTION
    * intersection type} or a {@linkplain TypeKind#TYPEVAR type variable}
@@ -152,10 +177,31 @@ public final class BeanTypeList extends ReferenceTypeList {
   public static final BeanTypeList closure(final TypeMirror t,
                                            final Predicate<? super TypeMirror> typeFilter,
                                            final Visitors visitors) {
-    return new BeanTypeList(visitors.typeClosureVisitor().visit(t).toList(),
-                            typeFilter,
-                            visitors.typeAndElementSource(),
-                            sameTypeEquality());
+    final TypeAndElementSource tes = visitors.typeAndElementSource();
+    if (typeFilter != LEGAL_BEAN_TYPE || CLOSURES == null) {
+      return new BeanTypeList(visitors.typeClosureVisitor().visit(t).toList(), typeFilter, tes, sameTypeEquality());
+    }
+    final ClosureKey k = new ClosureKey(tes, DelegatingTypeMirror.of(t, tes, sameTypeEquality()));
+    BeanTypeList closure = CLOSURES.get(k);
+    if (closure == null) {
+      // Closures are immutable, so if two threads race, either result will do.
+      closure = new BeanTypeList(visitors.typeClosureVisitor().visit(t).toList(), typeFilter, tes, sameTypeEquality());
+      final BeanTypeList existing = CLOSURES.putIfAbsent(k, closure);
+      if (existing != null) {
+        closure = existing;
+      }
+    }
+    return closure;
+  }
+
+  // Called by describeConstable(). Public so that descriptions can be resolved from outside this package.
+  @SuppressWarnings("deprecation")
+  public static final BeanTypeList of(final List<DelegatingTypeMirror> types,
+                                      final int classesIndex,
+                                      final int arraysIndex,
+                                      final int interfacesIndex,
+                                      final Equality equality) {
+    return new BeanTypeList(List.copyOf(types), classesIndex, arraysIndex, interfacesIndex, equality);
   }
 
   private static final Predicate<? super TypeMirror> typeFilter(final Predicate<? super TypeMirror> typeFilter) {
@@ -244,4 +290,13 @@ public final class BeanTypeList extends ReferenceTypeList {
     }
   }
 
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // The TypeAndElementSource is (in practice) compared by identity; the type by type sameness.
+  private static final record ClosureKey(TypeAndElementSource tes, DelegatingTypeMirror type) {}
+
 }
@@ -0,0 +1,442 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import java.time.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import java.util.function.Consumer;
+
+/**
+ * A policy governing how a {@link DefaultBeanSet} caches the results of {@linkplain
+ * DefaultBeanSet#beans(BeanSelectionCriteria) selection} and {@linkplain DefaultBeanSet#bean(BeanSelectionCriteria)
+ * resolution}.
+ *
+ * <p>Whatever the policy, a {@link DefaultBeanSet} evicts a resolution whenever it evicts the selection of the same
+ * {@link BeanSelectionCriteria}, so its cached resolutions remain a subset of its cached selections.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #unbounded()
+ *
+ * @see #bounded(int)
+ *
+ * @see #weak()
+ *
+ * @see DefaultBeanSet#selectionCacheStatistics()
+ */
+public final class CachePolicy {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final CachePolicy UNBOUNDED = new CachePolicy(Kind.UNBOUNDED, Integer.MAX_VALUE);
+
+  private static final CachePolicy WEAK = new CachePolicy(Kind.WEAK, Integer.MAX_VALUE);
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Kind kind;
+
+  private final int maximumSize;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private CachePolicy(final Kind kind, final int maximumSize) {
+    super();
+    this.kind = kind;
+    this.maximumSize = maximumSize;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the maximum number of entries a cache governed by this {@link CachePolicy} will hold, which is {@link
+   * Integer#MAX_VALUE} if it is not {@linkplain #bounded(int) bounded}.
+   *
+   * @return the maximum number of entries; always {@code 1} or greater
+   */
+  public final int maximumSize() {
+    return this.maximumSize;
+  }
+
+  // Called by DefaultBeanSet.
+  final <V> Cache<V> newCache(final Consumer<? super BeanSelectionCriteria> evictionListener) {
+    return switch (this.kind) {
+    case UNBOUNDED -> new UnboundedCache<>();
+    case BOUNDED -> new BoundedCache<>(this.maximumSize, evictionListener);
+    case WEAK -> new WeakCache<>();
+    };
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.kind == Kind.BOUNDED ? "bounded(" + this.maximumSize + ")" : this.kind.name().toLowerCase();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a {@link CachePolicy} whose caches never evict anything.
+   *
+   * <p>This is the default policy. It is appropriate when the set of {@link BeanSelectionCriteria} in use is fixed,
+   * which is the usual case.</p>
+   *
+   * @return a {@link CachePolicy}; never {@code null}
+   */
+  public static final CachePolicy unbounded() {
+    return UNBOUNDED;
+  }
+
+  /**
+   * Returns a {@link CachePolicy} whose caches hold at most the supplied number of entries, evicting an entry that has
+   * not been used recently when they would otherwise exceed it.
+   *
+   * <p>Eviction approximates least-recently-used order using the CLOCK ("second chance") algorithm, so that cache hits
+   * never take a lock.</p>
+   *
+   * @param maximumSize the maximum number of entries; must be {@code 1} or greater
+   *
+   * @return a {@link CachePolicy}; never {@code null}
+   *
+   * @exception IllegalArgumentException if {@code maximumSize} is less than {@code 1}
+   */
+  public static final CachePolicy bounded(final int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize: " + maximumSize);
+    }
+    return new CachePolicy(Kind.BOUNDED, maximumSize);
+  }
+
+  /**
+   * Returns a {@link CachePolicy} whose caches hold their {@link BeanSelectionCriteria} keys weakly, so that an entry
+   * is evicted once its {@link BeanSelectionCriteria} is no longer reachable from elsewhere.
+   *
+   * <p>This policy is appropriate when {@link BeanSelectionCriteria} are built dynamically and discarded.</p>
+   *
+   * @return a {@link CachePolicy}; never {@code null}
+   */
+  public static final CachePolicy weak() {
+    return WEAK;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * Statistics describing the use of a cache governed by a {@link CachePolicy}.
+   *
+   * @param hits the number of lookups that found a cached value
+   *
+   * @param misses the number of lookups that did not find a cached value
+   *
+   * @param evictions the number of entries evicted
+   *
+   * @param loads the number of values computed
+   *
+   * @param loadTime the total time spent computing values; must not be {@code null}
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static final record Statistics(long hits, long misses, long evictions, long loads, Duration loadTime) {
+
+    /**
+     * Creates a new {@link Statistics}.
+     *
+     * @param hits the number of lookups that found a cached value
+     *
+     * @param misses the number of lookups that did not find a cached value
+     *
+     * @param evictions the number of entries evicted
+     *
+     * @param loads the number of values computed
+     *
+     * @param loadTime the total time spent computing values; must not be {@code null}
+     *
+     * @exception NullPointerException if {@code loadTime} is {@code null}
+     */
+    public Statistics {
+      Objects.requireNonNull(loadTime, "loadTime");
+    }
+
+    /**
+     * Returns the ratio of {@linkplain #hits() hits} to lookups, or {@code 1.0} if there have been no lookups.
+     *
+     * @return the hit rate, between {@code 0.0} and {@code 1.0}, inclusive
+     */
+    public final double hitRate() {
+      final long lookups = this.hits() + this.misses();
+      return lookups == 0L ? 1.0 : (double)this.hits() / lookups;
+    }
+
+  }
+
+  private static enum Kind {
+
+    UNBOUNDED,
+
+    BOUNDED,
+
+    WEAK;
+
+  }
+
+  // A cache of values keyed by BeanSelectionCriteria. Null values are not permitted.
+  abstract static class Cache<V> {
+
+    private final LongAdder hits;
+
+    private final LongAdder misses;
+
+    private final LongAdder evictions;
+
+    private final LongAdder loads;
+
+    private final LongAdder loadNanos;
+
+    private Cache() {
+      super();
+      this.hits = new LongAdder();
+      this.misses = new LongAdder();
+      this.evictions = new LongAdder();
+      this.loads = new LongAdder();
+      this.loadNanos = new LongAdder();
+    }
+
+    // Returns the value cached under k, or null, and records a hit or a miss.
+    final V get(final BeanSelectionCriteria k) {
+      final V v = this.peek(k);
+      if (v == null) {
+        this.misses.increment();
+      } else {
+        this.hits.increment();
+      }
+      return v;
+    }
+
+    // Returns the value cached under k, or null, without recording anything.
+    abstract V peek(final BeanSelectionCriteria k);
+
+    abstract void put(final BeanSelectionCriteria k, final V v);
+
+    abstract void remove(final BeanSelectionCriteria k);
+
+    // Returns a snapshot of the entries in this cache.
+    abstract Map<BeanSelectionCriteria, V> snapshot();
+
+    final void loaded(final long nanos) {
+      this.loads.increment();
+      this.loadNanos.add(nanos);
+    }
+
+    final void evicted() {
+      this.evictions.increment();
+    }
+
+    final Statistics statistics() {
+      return
+        new Statistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.loads.sum(), Duration.ofNanos(this.loadNanos.sum()));
+    }
+
+  }
+
+  private static final class UnboundedCache<V> extends Cache<V> {
+
+    private final ConcurrentMap<BeanSelectionCriteria, V> map;
+
+    private UnboundedCache() {
+      super();
+      this.map = new ConcurrentHashMap<>();
+    }
+
+    @Override // Cache<V>
+    final V peek(final BeanSelectionCriteria k) {
+      return this.map.get(k);
+    }
+
+    @Override // Cache<V>
+    final void put(final BeanSelectionCriteria k, final V v) {
+      this.map.put(k, v);
+    }
+
+    @Override // Cache<V>
+    final void remove(final BeanSelectionCriteria k) {
+      this.map.remove(k);
+    }
+
+    @Override // Cache<V>
+    final Map<BeanSelectionCriteria, V> snapshot() {
+      return Map.copyOf(this.map);
+    }
+
+  }
+
+  // A cache approximating least-recently-used eviction; see ClockCache. Lookups take no lock. The eviction listener
+  // runs on the thread whose insertion caused the eviction, after the evicted entry has been removed.
+  private static final class BoundedCache<V> extends Cache<V> {
+
+    private final ClockCache<BeanSelectionCriteria, V> cache;
+
+    private BoundedCache(final int maximumSize, final Consumer<? super BeanSelectionCriteria> evictionListener) {
+      super();
+      this.cache = new ClockCache<>(maximumSize, k -> {
+          this.evicted();
+          if (evictionListener != null) {
+            evictionListener.accept(k);
+          }
+        });
+    }
+
+    @Override // Cache<V>
+    final V peek(final BeanSelectionCriteria k) {
+      return this.cache.get(k);
+    }
+
+    @Override // Cache<V>
+    final void put(final BeanSelectionCriteria k, final V v) {
+      this.cache.put(k, v);
+    }
+
+    @Override // Cache<V>
+    final void remove(final BeanSelectionCriteria k) {
+      this.cache.remove(k);
+    }
+
+    @Override // Cache<V>
+    final Map<BeanSelectionCriteria, V> snapshot() {
+      return this.cache.snapshot();
+    }
+
+  }
+
+  // A cache whose keys are weakly reachable. Entries whose keys have been collected are expunged whenever the cache is
+  // modified or snapshotted. Since every cache governed by this policy references a given BeanSelectionCriteria weakly,
+  // all of its entries become unreachable together, and so no eviction listener is needed.
+  private static final class WeakCache<V> extends Cache<V> {
+
+    private final ReferenceQueue<BeanSelectionCriteria> queue;
+
+    private final ConcurrentMap<WeakKey, V> map;
+
+    private WeakCache() {
+      super();
+      this.queue = new ReferenceQueue<>();
+      this.map = new ConcurrentHashMap<>();
+    }
+
+    @Override // Cache<V>
+    final V peek(final BeanSelectionCriteria k) {
+      return this.map.get(new WeakKey(k, null));
+    }
+
+    @Override // Cache<V>
+    final void put(final BeanSelectionCriteria k, final V v) {
+      this.expunge();
+      this.map.put(new WeakKey(k, this.queue), v);
+    }
+
+    @Override // Cache<V>
+    final void remove(final BeanSelectionCriteria k) {
+      this.expunge();
+      this.map.remove(new WeakKey(k, null));
+    }
+
+    @Override // Cache<V>
+    final Map<BeanSelectionCriteria, V> snapshot() {
+      this.expunge();
+      final Map<BeanSelectionCriteria, V> snapshot = new HashMap<>();
+      for (final Entry<WeakKey, V> e : this.map.entrySet()) {
+        final BeanSelectionCriteria k = e.getKey().get();
+        if (k != null) {
+          snapshot.put(k, e.getValue());
+        }
+      }
+      return Map.copyOf(snapshot);
+    }
+
+    private final void expunge() {
+      Reference<? extends BeanSelectionCriteria> r;
+      while ((r = this.queue.poll()) != null) {
+        if (this.map.remove(r) != null) {
+          this.evicted();
+        }
+      }
+    }
+
+    private static final class WeakKey extends WeakReference<BeanSelectionCriteria> {
+
+      private final int hashCode;
+
+      private WeakKey(final BeanSelectionCriteria k, final ReferenceQueue<BeanSelectionCriteria> queue) {
+        super(Objects.requireNonNull(k, "k"), queue);
+        this.hashCode = k.hashCode();
+      }
+
+      @Override // Object
+      public final int hashCode() {
+        return this.hashCode;
+      }
+
+      @Override // Object
+      public final boolean equals(final Object other) {
+        if (other == this) {
+          return true;
+        } else if (other != null && other.getClass() == this.getClass()) {
+          final Object k = this.get();
+          return k != null && k.equals(((WeakKey)other).get());
+        } else {
+          return false;
+        }
+      }
+
+    }
+
+  }
+
+}
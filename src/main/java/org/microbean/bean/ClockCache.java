@@ -0,0 +1,198 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.function.Consumer;
+
+// A bounded, concurrent cache that approximates least-recently-used eviction with the CLOCK ("second chance")
+// algorithm. Lookups take no lock and write nothing but a reference bit, and only when it is not already set.
+// Insertions reserve room before they insert, evicting entries whose reference bits are clear, so the number of entries
+// does not exceed the maximum size by more than the number of insertions in progress when the clock holds nothing
+// evictable. Null keys and values are not permitted.
+final class ClockCache<K, V> {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final int maximumSize;
+
+  private final Consumer<? super K> evictionListener;
+
+  private final ConcurrentMap<K, Node<K, V>> map;
+
+  // The clock; its head is the hand. Holds every node in the map, and, until the hand reaches them, nodes that have
+  // since been removed or replaced.
+  private final Queue<Node<K, V>> clock;
+
+  // The number of nodes in the clock, plus the number of insertions that have reserved room but not yet completed.
+  private final AtomicInteger size;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  ClockCache(final int maximumSize, final Consumer<? super K> evictionListener) {
+    super();
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    this.evictionListener = evictionListener == null ? ClockCache::sink : evictionListener;
+    this.map = new ConcurrentHashMap<>();
+    this.clock = new ConcurrentLinkedQueue<>();
+    this.size = new AtomicInteger();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  final V get(final Object k) {
+    final Node<K, V> n = this.map.get(k);
+    if (n == null) {
+      return null;
+    }
+    if (!n.referenced) {
+      n.referenced = true;
+    }
+    return n.value;
+  }
+
+  final V putIfAbsent(final K k, final V v) {
+    final V existingValue = this.get(k);
+    if (existingValue != null) {
+      // Avoids evicting anything to make room that is not needed.
+      return existingValue;
+    }
+    final Node<K, V> n = new Node<>(k, v);
+    this.reserve();
+    final Node<K, V> existing = this.map.putIfAbsent(k, n);
+    if (existing != null) {
+      this.size.decrementAndGet();
+      return existing.value;
+    }
+    this.clock.offer(n);
+    return null;
+  }
+
+  final void put(final K k, final V v) {
+    final Node<K, V> existing = this.map.get(k);
+    if (existing != null) {
+      // Replaces the value in place, so that nothing is evicted to make room for it. If existing is concurrently
+      // evicted, so is the new value.
+      existing.value = Objects.requireNonNull(v, "v");
+      existing.referenced = true;
+      return;
+    }
+    final Node<K, V> n = new Node<>(k, v);
+    this.reserve();
+    // Any node replaced stays in the clock until the hand reaches it.
+    this.map.put(k, n);
+    this.clock.offer(n);
+  }
+
+  final void remove(final Object k) {
+    // The removed node stays in the clock until the hand reaches it.
+    this.map.remove(k);
+  }
+
+  final int size() {
+    return this.map.size();
+  }
+
+  final Map<K, V> snapshot() {
+    final Map<K, V> snapshot = new HashMap<>();
+    for (final Entry<K, Node<K, V>> e : this.map.entrySet()) {
+      snapshot.put(e.getKey(), e.getValue().value);
+    }
+    return Map.copyOf(snapshot);
+  }
+
+  // Reserves room for one node, evicting as necessary.
+  private final void reserve() {
+    this.size.incrementAndGet();
+    // Bounds the number of second chances granted, so that concurrent lookups cannot keep the hand turning forever.
+    int secondChances = this.maximumSize;
+    while (this.size.get() > this.maximumSize) {
+      final Node<K, V> n = this.clock.poll();
+      if (n == null) {
+        // Every counted node is a reservation in progress.
+        return;
+      }
+      if (this.map.get(n.key) != n) {
+        // Removed or replaced.
+        this.size.decrementAndGet();
+      } else if (n.referenced && secondChances-- > 0) {
+        n.referenced = false;
+        this.clock.offer(n);
+      } else {
+        this.size.decrementAndGet();
+        if (this.map.remove(n.key, n)) {
+          this.evictionListener.accept(n.key);
+        }
+      }
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  private static final void sink(final Object ignored) {}
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // Compared by identity.
+  private static final class Node<K, V> {
+
+    private final K key;
+
+    private volatile V value;
+
+    private volatile boolean referenced;
+
+    private Node(final K key, final V value) {
+      super();
+      this.key = Objects.requireNonNull(key, "key");
+      this.value = Objects.requireNonNull(value, "value");
+    }
+
+  }
+
+}
@@ -0,0 +1,262 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.microbean.bean.AbstractInstantiator.PositionalCreationBiFunction;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * An {@link Instantiator} that composes a {@link MethodHandle} (typically one that invokes a constructor or a factory
+ * method) and the acquisition of each of its arguments into a single {@link MethodHandle} at construction time.
+ *
+ * <p>The {@link Bean} each {@link BeanSelectionCriteria} selects is resolved once and bound into the composed {@link
+ * MethodHandle} together with the {@link ReferenceSelector}. The composed {@link MethodHandle} accepts a {@link
+ * Creation}, from which the {@link Creation} for each position is obtained afresh on every invocation, so one {@link
+ * CompiledInstantiator} serves any number of {@link Creation}s, and each instantiation acquires its own dependent
+ * objects. Each invocation of {@link #instantiate(Creation)} is therefore a single {@link
+ * MethodHandle#invokeExact(Object...) invokeExact} invocation that performs no resolution.</p>
+ *
+ * <p>The receiver, if there is one, is acquired first, followed by each argument in order.</p>
+ *
+ * @param <I> the type of the product
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see AbstractInstantiator
+ */
+public final class CompiledInstantiator<I> implements Instantiator<I> {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final MethodHandle REFERENCE;
+
+  private static final MethodHandle APPLY;
+
+  static {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      REFERENCE =
+        lookup.findVirtual(ReferenceSelector.class,
+                           "reference",
+                           methodType(Object.class, BeanSelectionCriteria.class, Bean.class, Creation.class));
+      APPLY =
+        lookup.findVirtual(PositionalCreationBiFunction.class, "apply", methodType(Creation.class, Creation.class, int.class));
+    } catch (final NoSuchMethodException | IllegalAccessException e) {
+      throw (Error)new ExceptionInInitializerError(e.getMessage()).initCause(e);
+    }
+  }
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  // (Creation)Object
+  private final MethodHandle mh;
+
+  private final Creation<?> c;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link CompiledInstantiator} (convenience constructor).
+   *
+   * @param mh a {@link MethodHandle} that produces the product, such as one that invokes a constructor; must not be
+   * {@code null}; must not return {@code void}; must accept exactly one argument per element of {@code bscs}
+   *
+   * @param c the {@link Creation} used by {@link #instantiate()}; may be {@code null}
+   *
+   * @param bscs a {@link List} of {@link BeanSelectionCriteria}, one per parameter of {@code mh}, in order; must not be
+   * {@code null}
+   *
+   * @param rs a {@link ReferenceSelector}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code mh}, {@code bscs} or {@code rs} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code mh} returns {@code void} or if its parameters do not correspond to
+   * {@code bscs}
+   *
+   * @exception UnsatisfiedResolutionException if a {@link BeanSelectionCriteria} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link BeanSelectionCriteria} could not be resolved unambiguously
+   *
+   * @see #CompiledInstantiator(MethodHandle, BeanSelectionCriteria, Creation, List, PositionalCreationBiFunction,
+   * ReferenceSelector)
+   */
+  public CompiledInstantiator(final MethodHandle mh,
+                              final Creation<?> c,
+                              final List<? extends BeanSelectionCriteria> bscs,
+                              final ReferenceSelector rs) {
+    this(mh, null, c, bscs, null, rs);
+  }
+
+  /**
+   * Creates a new {@link CompiledInstantiator}.
+   *
+   * @param mh a {@link MethodHandle} that produces the product, such as one that invokes a constructor or an instance
+   * method; must not be {@code null}; must not return {@code void}; must accept a receiver, if {@code
+   * receiverSelectionCriteria} is not {@code null}, followed by exactly one argument per element of {@code bscs}
+   *
+   * @param receiverSelectionCriteria a {@link BeanSelectionCriteria} that can select the receiver that will be supplied
+   * as the first argument to {@code mh}; may be {@code null} if {@code mh} does not need a receiver
+   *
+   * @param c the {@link Creation} used by {@link #instantiate()}; may be {@code null}
+   *
+   * @param bscs a {@link List} of {@link BeanSelectionCriteria}, one per (non-receiver) parameter of {@code mh}, in
+   * order; must not be {@code null}
+   *
+   * @param pcbf a {@link PositionalCreationBiFunction} that supplies a {@link Creation} given the {@link Creation}
+   * supplied to {@link #instantiate(Creation)} and a zero-based position in {@code bscs}; may be {@code null}; invoked
+   * once per position per instantiation
+   *
+   * @param rs a {@link ReferenceSelector}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code mh}, {@code bscs} or {@code rs} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code mh} returns {@code void} or if its parameters do not correspond to
+   * {@code receiverSelectionCriteria} and {@code bscs}
+   *
+   * @exception UnsatisfiedResolutionException if a {@link BeanSelectionCriteria} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link BeanSelectionCriteria} could not be resolved unambiguously
+   */
+  public CompiledInstantiator(final MethodHandle mh,
+                              final BeanSelectionCriteria receiverSelectionCriteria, // nullable
+                              final Creation<?> c,
+                              final List<? extends BeanSelectionCriteria> bscs,
+                              final PositionalCreationBiFunction pcbf,
+                              final ReferenceSelector rs) {
+    super();
+    final MethodType type = mh.type();
+    if (type.returnType() == void.class) {
+      throw new IllegalArgumentException("mh: " + mh);
+    }
+    final int offset = receiverSelectionCriteria == null ? 0 : 1;
+    if (type.parameterCount() != bscs.size() + offset) {
+      throw new IllegalArgumentException("mh: " + mh + "; bscs: " + bscs);
+    }
+    final InjectionPlan plan = new InjectionPlan(rs.beanSet(), bscs);
+    MethodHandle h = mh;
+    // Bind from the last parameter to the first so that the outermost (first invoked) producer is the first. Each
+    // producer replaces its parameter with a Creation parameter.
+    for (int i = plan.size() - 1; i >= 0; i--) {
+      MethodHandle producer = producer(rs, plan.beanSelectionCriteria(i), plan.bean(i), type.parameterType(i + offset));
+      if (pcbf != null) {
+        producer = MethodHandles.filterArguments(producer, 0, MethodHandles.insertArguments(APPLY, 0, pcbf, i));
+      }
+      h = MethodHandles.collectArguments(h, i + offset, producer);
+    }
+    if (receiverSelectionCriteria != null) {
+      final Bean<?> receiver = rs.beanSet().bean(receiverSelectionCriteria);
+      if (receiver == null) {
+        throw new UnsatisfiedResolutionException(receiverSelectionCriteria);
+      }
+      h = MethodHandles.collectArguments(h, 0, producer(rs, receiverSelectionCriteria, receiver, type.parameterType(0)));
+    }
+    // Spread the single Creation parameter to every producer.
+    h = MethodHandles.permuteArguments(h, methodType(type.returnType(), Creation.class), new int[type.parameterCount()]);
+    this.mh = h.asType(methodType(Object.class, Creation.class));
+    this.c = c;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Instantiates the product using the {@link Creation} supplied at construction time and returns it.
+   *
+   * @return the product
+   *
+   * @exception CreationException if the underlying {@link MethodHandle} throws a checked exception
+   *
+   * @see #instantiate(Creation)
+   */
+  @Override // Instantiator<I>
+  public final I instantiate() {
+    return this.instantiate(this.c);
+  }
+
+  /**
+   * Instantiates the product using the supplied {@link Creation} and returns it.
+   *
+   * @param c a {@link Creation}; may be {@code null}
+   *
+   * @return the product
+   *
+   * @exception CreationException if the underlying {@link MethodHandle} throws a checked exception
+   */
+  @SuppressWarnings("unchecked")
+  public final I instantiate(final Creation<?> c) {
+    try {
+      return (I)(Object)this.mh.invokeExact(c);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      throw new CreationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the composed {@link MethodHandle} this {@link CompiledInstantiator} invokes, whose {@linkplain
+   * MethodHandle#type() type} is {@code (Creation)Object}.
+   *
+   * <p>The returned {@link MethodHandle} does not depend on any {@link Creation}. Callers for which instantiation is
+   * hot may therefore store it in a {@code static final} field, or bind it into a {@link
+   * java.lang.invoke.ConstantCallSite}, once per injection point, where the JIT can constant-fold it, which it cannot
+   * do when it is reached through an instance of this class.</p>
+   *
+   * @return the composed {@link MethodHandle}; never {@code null}
+   */
+  public final MethodHandle methodHandle() {
+    return this.mh;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Returns a MethodHandle of type (Creation)type that acquires a reference.
+  private static final MethodHandle producer(final ReferenceSelector rs,
+                                             final BeanSelectionCriteria bsc,
+                                             final Bean<?> bean,
+                                             final Class<?> type) {
+    return MethodHandles.insertArguments(REFERENCE, 0, Objects.requireNonNull(rs, "rs"), bsc, bean).asType(methodType(type, Creation.class));
+  }
+
+}
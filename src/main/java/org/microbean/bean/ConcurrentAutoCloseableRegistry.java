@@ -0,0 +1,187 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A lock-free {@link AutoCloseableRegistry} suitable for registries shared by many concurrently registering threads.
+ *
+ * <p>Registrations are pushed onto a lock-free stack. {@linkplain #close() Closing} atomically swaps the stack for a
+ * sentinel, so that exactly one invocation of {@link #close()} closes the registrants, and every {@linkplain
+ * #register(AutoCloseable) registration} either happens before the close (and its registrant is closed) or fails.
+ * Registrants are closed in reverse order of registration.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see DefaultAutoCloseableRegistry
+ */
+public final class ConcurrentAutoCloseableRegistry implements AutoCloseableRegistry {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final Node CLOSED = new Node(null, null);
+
+  private static final VarHandle HEAD;
+
+  static {
+    try {
+      HEAD = MethodHandles.lookup().findVarHandle(ConcurrentAutoCloseableRegistry.class, "head", Node.class);
+    } catch (final NoSuchFieldException | IllegalAccessException e) {
+      throw (Error)new ExceptionInInitializerError(e.getMessage()).initCause(e);
+    }
+  }
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  // The most recent registration, or null if there are none, or CLOSED.
+  private volatile Node head;
+
+  // Registrants, for duplicate detection.
+  private final Set<AutoCloseable> registrants;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ConcurrentAutoCloseableRegistry}.
+   */
+  public ConcurrentAutoCloseableRegistry() {
+    super();
+    this.registrants = ConcurrentHashMap.newKeySet();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override // AutoCloseableRegistry
+  public final ConcurrentAutoCloseableRegistry clone() {
+    final ConcurrentAutoCloseableRegistry clone = new ConcurrentAutoCloseableRegistry();
+    this.register(clone); // fails, as it should, if this registry is closed
+    return clone;
+  }
+
+  @Override // AutoCloseableRegistry
+  public final void close() {
+    Node node = (Node)HEAD.getAndSet(this, CLOSED);
+    if (node == CLOSED) {
+      // already closed
+      return;
+    }
+    this.registrants.clear();
+    RuntimeException re = null;
+    while (node != null) {
+      try {
+        node.closeable.close();
+      } catch (final RuntimeException e) {
+        if (re == null) {
+          re = e;
+        } else {
+          re.addSuppressed(e);
+        }
+      } catch (final Exception e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        if (re == null) {
+          re = new BeanException(e.getMessage(), e);
+        } else {
+          re.addSuppressed(e);
+        }
+      }
+      node = node.next;
+    }
+    if (re != null) {
+      throw re;
+    }
+  }
+
+  @Override // AutoCloseableRegistry
+  public final boolean closed() {
+    return this.head == CLOSED;
+  }
+
+  @Override // AutoCloseableRegistry
+  public final boolean register(final AutoCloseable closeable) {
+    if (Objects.requireNonNull(closeable, "closeable") == this) {
+      throw new IllegalArgumentException("closeable == this");
+    }
+    if (this.head == CLOSED || !this.registrants.add(closeable)) {
+      return false;
+    }
+    Node head = this.head;
+    while (head != CLOSED) {
+      if (HEAD.compareAndSet(this, head, new Node(closeable, head))) {
+        return true;
+      }
+      head = this.head;
+    }
+    // Closed concurrently.
+    this.registrants.remove(closeable);
+    return false;
+  }
+
+  /**
+   * Returns the number of {@link AutoCloseable}s registered with this {@link ConcurrentAutoCloseableRegistry}, or
+   * {@code 0} if it has been {@linkplain #closed() closed}.
+   *
+   * <p>While registrations are in progress on other threads, the value returned is an estimate.</p>
+   *
+   * @return the number of registrants
+   */
+  public final int size() {
+    return this.head == CLOSED ? 0 : this.registrants.size();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  private static final class Node {
+
+    private final AutoCloseable closeable;
+
+    private final Node next;
+
+    private Node(final AutoCloseable closeable, final Node next) {
+      super();
+      this.closeable = closeable;
+      this.next = next;
+    }
+
+  }
+
+}
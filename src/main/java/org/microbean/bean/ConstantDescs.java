@@ -37,6 +37,8 @@ public final class ConstantDescs {
 
   public static final ClassDesc CD_Resolver = ClassDesc.of("org.microbean.bean.Alternate$Resolver");
 
+  public static final ClassDesc CD_TieredResolver = ClassDesc.of("org.microbean.bean.TieredResolver");
+
   private ConstantDescs() {
     super();
   }
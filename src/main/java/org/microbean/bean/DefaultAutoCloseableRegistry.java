@@ -13,17 +13,39 @@
  */
 package org.microbean.bean;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import java.util.concurrent.locks.ReentrantLock;
+
 public class DefaultAutoCloseableRegistry implements AutoCloseableRegistry {
 
-  // @GuardedBy("this")
+  // Not final only so that clone() can give each clone its own. A ReentrantLock rather than a monitor so that virtual
+  // threads contending for it do not pin their carriers.
+  private ReentrantLock lock;
+
+  // @GuardedBy("lock")
   private Set<AutoCloseable> closeables;
 
+  // Registrants that must not be closed until other registrants have been closed, mapped to those registrants. Since a
+  // registrant can only be made to follow one that was registered before it, closing registrants in order of
+  // registration honors these constraints, and there can be no cycles.
+  //
+  // @GuardedBy("lock")
+  private Map<AutoCloseable, AutoCloseable> predecessors;
+
   public DefaultAutoCloseableRegistry() {
     super();
+    this.lock = new ReentrantLock();
   }
 
   @Override // Cloneable
@@ -34,7 +56,9 @@ public class DefaultAutoCloseableRegistry implements AutoCloseableRegistry {
     } catch (final CloneNotSupportedException e) {
       throw new AssertionError(e.getMessage(), e);
     }
+    dacr.lock = new ReentrantLock();
     dacr.closeables = null;
+    dacr.predecessors = null;
     if (!this.register(dacr)) { // CRITICAL
       throw new AssertionError();
     }
@@ -44,47 +68,92 @@ public class DefaultAutoCloseableRegistry implements AutoCloseableRegistry {
   @Override // AutoCloseableRegistry
   public final void close() {
     final Set<? extends AutoCloseable> closeables;
-    synchronized (this) {
+    this.lock.lock();
+    try {
       closeables = this.closeables;
       if (closeables == Set.<AutoCloseable>of()) {
         // already closed
         return;
       }
       this.closeables = Set.of();
+      this.predecessors = null;
+    } finally {
+      this.lock.unlock();
     }
     if (closeables == null) {
       // nothing to close
       return;
     }
-    RuntimeException re = null;
+    // Errors are aggregated along with everything else, as they are by closeAsync(Executor).
+    Throwable failure = null;
     for (final AutoCloseable c : closeables) {
-      try {
-        c.close();
-      } catch (final RuntimeException e) {
-        if (re == null) {
-          re = e;
-        } else {
-          re.addSuppressed(e);
-        }
-      } catch (final Exception e) {
-        if (e instanceof InterruptedException) {
-          Thread.currentThread().interrupt();
-        }
-        if (re == null) {
-          re = new BeanException(e.getMessage(), e);
-        } else {
-          re.addSuppressed(e);
-        }
+      failure = aggregate(failure, close(c));
+    }
+    if (failure instanceof Error e) {
+      throw e;
+    } else if (failure != null) {
+      throw (RuntimeException)failure;
+    }
+  }
+
+  // Closes registrants concurrently on the supplied Executor, except that a registrant registered with
+  // registerAfter(AutoCloseable, AutoCloseable) is not closed until its predecessor has been. Registrants that are
+  // themselves AutoCloseableRegistry instances are closed with their own closeAsync(Executor) methods. Failures are
+  // aggregated as they are by close(), in order of registration.
+  @Override // AutoCloseableRegistry
+  public final CompletionStage<Void> closeAsync(final Executor executor) {
+    Objects.requireNonNull(executor, "executor");
+    final Set<? extends AutoCloseable> closeables;
+    final Map<AutoCloseable, AutoCloseable> predecessors;
+    this.lock.lock();
+    try {
+      closeables = this.closeables;
+      if (closeables == Set.<AutoCloseable>of()) {
+        // already closed
+        return CompletableFuture.completedFuture(null);
       }
+      predecessors = this.predecessors;
+      this.closeables = Set.of();
+      this.predecessors = null;
+    } finally {
+      this.lock.unlock();
     }
-    if (re != null) {
-      throw re;
+    if (closeables == null) {
+      // nothing to close
+      return CompletableFuture.completedFuture(null);
     }
+    // Predecessors precede their successors in closeables, so each predecessor's closing exists when it is needed.
+    final Map<AutoCloseable, CompletableFuture<Throwable>> closings = HashMap.newHashMap(closeables.size());
+    for (final AutoCloseable c : closeables) {
+      final AutoCloseable predecessor = predecessors == null ? null : predecessors.get(c);
+      closings.put(c, predecessor == null ? closeAsync(c, executor) : closings.get(predecessor).thenCompose(t -> closeAsync(c, executor)));
+    }
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+    CompletableFuture.allOf(closings.values().toArray(new CompletableFuture<?>[0]))
+      .whenComplete((v, ignored) -> {
+          Throwable failure = null;
+          for (final AutoCloseable c : closeables) {
+            // A closing that failed outright (rather than completing with what closing threw) contributes its failure.
+            final CompletableFuture<Throwable> closing = closings.get(c);
+            failure = aggregate(failure, closing.isCompletedExceptionally() ? closing.exceptionNow() : closing.getNow(null));
+          }
+          if (failure == null) {
+            result.complete(null);
+          } else {
+            result.completeExceptionally(failure);
+          }
+        });
+    return result;
   }
 
   @Override // AutoCloseable
-  public final synchronized boolean closed() {
-    return this.closeables == Set.<AutoCloseable>of();
+  public final boolean closed() {
+    this.lock.lock();
+    try {
+      return this.closeables == Set.<AutoCloseable>of();
+    } finally {
+      this.lock.unlock();
+    }
   }
 
   @Override // AutoCloseableRegistry
@@ -92,18 +161,98 @@ public class DefaultAutoCloseableRegistry implements AutoCloseableRegistry {
     if (Objects.requireNonNull(closeable, "closeable") == this) {
       throw new IllegalArgumentException("closeable == this");
     }
-    synchronized (this) {
+    this.lock.lock();
+    try {
       if (this.closed()) {
         return false;
       } else if (this.closeables == null) {
         this.closeables = new LinkedHashSet<>();
       }
       return this.closeables.add(closeable);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  // Registers closeable, which must not already be registered, such that it will not be closed until predecessor, which
+  // must already be registered, has been closed.
+  public final boolean registerAfter(final AutoCloseable predecessor, final AutoCloseable closeable) {
+    Objects.requireNonNull(predecessor, "predecessor");
+    if (Objects.requireNonNull(closeable, "closeable") == this) {
+      throw new IllegalArgumentException("closeable == this");
+    }
+    this.lock.lock();
+    try {
+      if (this.closed()) {
+        return false;
+      } else if (this.closeables == null || !this.closeables.contains(predecessor)) {
+        throw new IllegalArgumentException("predecessor not registered: " + predecessor);
+      } else if (!this.closeables.add(closeable)) {
+        return false;
+      } else if (this.predecessors == null) {
+        this.predecessors = new HashMap<>();
+      }
+      this.predecessors.put(closeable, predecessor);
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  public final int size() {
+    this.lock.lock();
+    try {
+      return this.closeables == null ? 0 : this.closeables.size();
+    } finally {
+      this.lock.unlock();
     }
   }
 
-  public final synchronized int size() {
-    return this.closeables == null ? 0 : this.closeables.size();
+  // Returns a CompletableFuture that completes with whatever closing c threw, or with null.
+  private static final CompletableFuture<Throwable> closeAsync(final AutoCloseable c, final Executor executor) {
+    if (c instanceof AutoCloseableRegistry r) {
+      final CompletionStage<Void> closing;
+      try {
+        closing = r.closeAsync(executor);
+      } catch (final RejectedExecutionException e) {
+        // For example, the default closeAsync(Executor) implementation runs close() on the executor.
+        return CompletableFuture.completedFuture(close(r));
+      }
+      return closing.toCompletableFuture().handle((v, t) -> t instanceof CompletionException ce && ce.getCause() != null ? ce.getCause() : t);
+    }
+    try {
+      return CompletableFuture.supplyAsync(() -> close(c), executor);
+    } catch (final RejectedExecutionException e) {
+      return CompletableFuture.completedFuture(close(c));
+    }
+  }
+
+  // Returns the failure that results from adding t, which may be null, to failure, which may be null. The first failure
+  // becomes the one reported, wrapped in a BeanException unless it is a RuntimeException or an Error; the rest are
+  // suppressed by it.
+  private static final Throwable aggregate(final Throwable failure, final Throwable t) {
+    if (t == null) {
+      return failure;
+    } else if (failure == null) {
+      return t instanceof RuntimeException || t instanceof Error ? t : new BeanException(t.getMessage(), t);
+    }
+    failure.addSuppressed(t);
+    return failure;
+  }
+
+  // Closes c and returns whatever it threw, or null.
+  private static final Throwable close(final AutoCloseable c) {
+    try {
+      c.close();
+      return null;
+    } catch (final RuntimeException | Error e) {
+      return e;
+    } catch (final Exception e) {
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return e;
+    }
   }
 
 }
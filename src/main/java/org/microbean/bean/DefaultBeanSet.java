@@ -14,6 +14,7 @@
 package org.microbean.bean;
 
 import java.lang.constant.Constable;
+import java.lang.constant.ConstantDesc;
 import java.lang.constant.DynamicConstantDesc;
 import java.lang.constant.MethodHandleDesc;
 
@@ -23,24 +24,36 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.SequencedSet;
 import java.util.Set;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import java.util.stream.Collector;
 import java.util.stream.Collector.Characteristics;
 
+import javax.lang.model.element.QualifiedNameable;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
 import org.microbean.bean.Alternate.Resolver;
 
 import org.microbean.constant.Constables;
@@ -52,6 +65,7 @@ import static java.lang.Integer.signum;
 import static java.lang.constant.ConstantDescs.BSM_INVOKE;
 import static java.lang.constant.ConstantDescs.CD_Collection;
 import static java.lang.constant.ConstantDescs.CD_Map;
+import static java.lang.constant.ConstantDescs.NULL;
 
 import static java.util.Collections.unmodifiableSequencedSet;
 
@@ -76,6 +90,14 @@ import static org.microbean.scope.Scope.SINGLETON_ID;
 public class DefaultBeanSet implements BeanSet, Constable {
 
 
+  /*
+   * Static fields.
+   */
+
+
+  private static final int[] EMPTY_INT_ARRAY = new int[0];
+
+
   /*
    * Instance fields.
    */
@@ -87,11 +109,35 @@ public class DefaultBeanSet implements BeanSet, Constable {
 
   private final SequencedSet<Bean<?>> beansView;
 
+  // The contents of beansView, in the same (rank) order. Indices into this array are bean ordinals.
+  private final Bean<?>[] beansArray;
+
+  // Ordinals of Beans, in ascending order, keyed by the index key (see #indexKey(TypeMirror)) of any of their types.
+  private final Map<String, int[]> typeIndex;
+
+  // Ordinals of Beans, in ascending order, that have at least one type that cannot be indexed and so must always be
+  // considered during selection.
+  private final int[] unindexedBeans;
+
   // A cache of Beans that were selected by a BeanSelectionCriteria
-  private final ConcurrentMap<BeanSelectionCriteria, SequencedSet<Bean<?>>> selectionCache;
+  private final CachePolicy.Cache<SequencedSet<Bean<?>>> selectionCache;
+
+  // Guaranteed to be a submap of selectionCache: evicting a selection evicts its resolution.
+  private final CachePolicy.Cache<Bean<?>> resolutionCache;
+
+  // Resolutions supplied at construction time. Never evicted, and consulted before resolutionCache.
+  private final Map<BeanSelectionCriteria, Bean<?>> preCalculatedResolutions;
+
+  // Selections in progress; see
+  // #computeOnce(BeanSelectionCriteria, CachePolicy.Cache, ConcurrentMap, Function, Predicate).
+  private final ConcurrentMap<BeanSelectionCriteria, Pending<SequencedSet<Bean<?>>>> pendingSelections;
+
+  // Resolutions in progress; see
+  // #computeOnce(BeanSelectionCriteria, CachePolicy.Cache, ConcurrentMap, Function, Predicate).
+  private final ConcurrentMap<BeanSelectionCriteria, Pending<Bean<?>>> pendingResolutions;
 
-  // Guaranteed to be a submap of selectionCache.
-  private final ConcurrentMap<BeanSelectionCriteria, Bean<?>> resolutionCache;
+  // The Beans this DefaultBeanSet always adds to itself; see #describeConstable().
+  private final List<Bean<?>> foundationalBeans;
 
 
   /*
@@ -157,16 +203,98 @@ public class DefaultBeanSet implements BeanSet, Constable {
    * @exception IllegalArgumentException if {@code preCalculatedResolutions} contains any {@link BeanSelectionCriteria}
    * that does not {@linkplain BeanSelectionCriteria#selects(Bean) select its corresponding <code>Bean</code>}
    */
+  public DefaultBeanSet(final Assignability assignability,
+                        final Collection<? extends Bean<?>> beans,
+                        final Map<? extends BeanSelectionCriteria, ? extends Bean<?>> preCalculatedResolutions,
+                        final Resolver resolver) {
+    this(assignability, beans, preCalculatedResolutions, resolver, false);
+  }
+
+  /**
+   * Creates a new {@link DefaultBeanSet}.
+   *
+   * <p>If {@code validateAndPrime} is {@code true}, then the {@link BeanSelectionCriteria} of every {@linkplain
+   * Bean#dependencies() dependency} of every {@link Bean} will be resolved, in parallel, using the {@linkplain
+   * java.util.concurrent.ForkJoinPool#commonPool() common fork-join pool}, before this constructor returns. All
+   * resolution failures are reported together.</p>
+   *
+   * @param assignability an {@link Assignability}; may be {@code null} in which case a default one will be used
+   *
+   * @param beans a {@link Collection} of {@link Bean}s; may be {@code null}; no reference to this object is
+   * retained
+   *
+   * @param preCalculatedResolutions a {@link Map} of {@link BeanSelectionCriteria} to {@link Bean}s representing
+   * already-resolved {@link Bean}s; may be {@code null}; no reference to this object is retained
+   *
+   * @param resolver a {@link Resolver}; may be {@code null} in which case a default one will be used
+   *
+   * @param validateAndPrime whether every dependency should be resolved eagerly
+   *
+   * @exception IllegalArgumentException if {@code preCalculatedResolutions} contains any {@link BeanSelectionCriteria}
+   * that does not {@linkplain BeanSelectionCriteria#selects(Bean) select its corresponding <code>Bean</code>}
+   *
+   * @exception ResolutionException if {@code validateAndPrime} is {@code true} and at least one dependency could not be
+   * resolved; each {@link UnsatisfiedResolutionException} or {@link AmbiguousResolutionException} encountered will be
+   * {@linkplain Throwable#getSuppressed() suppressed} by it
+   *
+   * @see #DefaultBeanSet(Assignability, Collection, Map, Resolver, boolean, CachePolicy)
+   */
+  public DefaultBeanSet(final Assignability assignability,
+                        final Collection<? extends Bean<?>> beans,
+                        final Map<? extends BeanSelectionCriteria, ? extends Bean<?>> preCalculatedResolutions,
+                        final Resolver resolver,
+                        final boolean validateAndPrime) {
+    this(assignability, beans, preCalculatedResolutions, resolver, validateAndPrime, CachePolicy.unbounded());
+  }
+
+  /**
+   * Creates a new {@link DefaultBeanSet}.
+   *
+   * <p>If {@code validateAndPrime} is {@code true}, then the {@link BeanSelectionCriteria} of every {@linkplain
+   * Bean#dependencies() dependency} of every {@link Bean} will be resolved, in parallel, using the {@linkplain
+   * java.util.concurrent.ForkJoinPool#commonPool() common fork-join pool}, before this constructor returns. All
+   * resolution failures are reported together.</p>
+   *
+   * <p>The supplied {@link CachePolicy} governs the caching of selections and resolutions. Resolutions supplied in
+   * {@code preCalculatedResolutions} are never evicted.</p>
+   *
+   * @param assignability an {@link Assignability}; may be {@code null} in which case a default one will be used
+   *
+   * @param beans a {@link Collection} of {@link Bean}s; may be {@code null}; no reference to this object is
+   * retained
+   *
+   * @param preCalculatedResolutions a {@link Map} of {@link BeanSelectionCriteria} to {@link Bean}s representing
+   * already-resolved {@link Bean}s; may be {@code null}; no reference to this object is retained
+   *
+   * @param resolver a {@link Resolver}; may be {@code null} in which case a default one will be used
+   *
+   * @param validateAndPrime whether every dependency should be resolved eagerly
+   *
+   * @param cachePolicy a {@link CachePolicy}; may be {@code null} in which case {@link CachePolicy#unbounded()} will
+   * be used
+   *
+   * @exception IllegalArgumentException if {@code preCalculatedResolutions} contains any {@link BeanSelectionCriteria}
+   * that does not {@linkplain BeanSelectionCriteria#selects(Bean) select its corresponding <code>Bean</code>}
+   *
+   * @exception ResolutionException if {@code validateAndPrime} is {@code true} and at least one dependency could not be
+   * resolved; each {@link UnsatisfiedResolutionException} or {@link AmbiguousResolutionException} encountered will be
+   * {@linkplain Throwable#getSuppressed() suppressed} by it
+   */
   @SuppressWarnings("this-escape")
   public DefaultBeanSet(final Assignability assignability,
                         Collection<? extends Bean<?>> beans,
                         Map<? extends BeanSelectionCriteria, ? extends Bean<?>> preCalculatedResolutions,
-                        final Resolver resolver) {
+                        final Resolver resolver,
+                        final boolean validateAndPrime,
+                        final CachePolicy cachePolicy) {
     super();
     this.assignability = assignability == null ? new Assignability() : assignability;
     this.resolver = resolver == null ? StockResolver.INSTANCE : resolver;
-    this.resolutionCache = new ConcurrentHashMap<>();
-    this.selectionCache = new ConcurrentHashMap<>();
+    final CachePolicy cp = cachePolicy == null ? CachePolicy.unbounded() : cachePolicy;
+    this.resolutionCache = cp.newCache(null);
+    this.selectionCache = cp.newCache(this.resolutionCache::remove);
+    this.pendingResolutions = new ConcurrentHashMap<>();
+    this.pendingSelections = new ConcurrentHashMap<>();
 
     if (beans == null) {
       beans = List.of();
@@ -183,25 +311,53 @@ public class DefaultBeanSet implements BeanSet, Constable {
         throw new IllegalArgumentException("preCalculatedResolutions; beanSelectionCriteria (" + bsc + ") does not select bean (" + b + ")");
       }
       newBeans.add(b);
-      this.resolutionCache.put(bsc, b);
     }
-    newBeans.add(this.resolverBean());
-    newBeans.add(this.bean());
-    newBeans.add(this.assignabilityBean());
-    newBeans.add(this.typeAndElementSourceBean());
+    this.preCalculatedResolutions = Map.copyOf(preCalculatedResolutions);
+    this.foundationalBeans = List.of(this.resolverBean(), this.bean(), this.assignabilityBean(), this.typeAndElementSourceBean());
+    newBeans.addAll(this.foundationalBeans);
     Collections.sort(newBeans, DefaultBeanSet::compareRanks);
+    this.beansView = unmodifiableSequencedSet(new LinkedHashSet<>(newBeans));
+    this.beansArray = this.beansView.toArray(new Bean<?>[0]);
+
+    // Index the beans by the erasures of their types so that selection need only consider plausible candidates.
+    final Map<String, List<Integer>> index = new HashMap<>();
+    final List<Integer> unindexed = new ArrayList<>();
+    for (int ordinal = 0; ordinal < this.beansArray.length; ordinal++) {
+      for (final TypeMirror t : this.beansArray[ordinal].id().types().types()) {
+        final List<Integer> ordinals;
+        final String key = indexKey(t);
+        if (key == null) {
+          ordinals = unindexed;
+        } else {
+          ordinals = index.computeIfAbsent(key, k -> new ArrayList<>());
+        }
+        if (ordinals.isEmpty() || ordinals.get(ordinals.size() - 1) != ordinal) {
+          ordinals.add(ordinal);
+        }
+      }
+    }
+    final Map<String, int[]> typeIndex = HashMap.newHashMap(index.size());
+    for (final Entry<String, List<Integer>> e : index.entrySet()) {
+      typeIndex.put(e.getKey(), toIntArray(e.getValue()));
+    }
+    this.typeIndex = Collections.unmodifiableMap(typeIndex);
+    this.unindexedBeans = toIntArray(unindexed);
+
     // Second pass to efficiently prime the selection cache now that validation has happened.
     for (final BeanSelectionCriteria bsc : preCalculatedResolutions.keySet()) {
-      this.beans(bsc, newBeans);
+      this.beans(bsc);
     }
-    this.beansView = unmodifiableSequencedSet(new LinkedHashSet<>(newBeans));
 
     // Prime the selection and resolution caches with our beans.
-    final TypeAndElementSource tes = assignability.typeAndElementSource();
-    this.bean(new BeanSelectionCriteria(assignability, tes.declaredType(Resolver.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
-    this.bean(new BeanSelectionCriteria(assignability, tes.declaredType(BeanSet.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
-    this.bean(new BeanSelectionCriteria(assignability, tes.declaredType(Assignability.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
-    this.bean(new BeanSelectionCriteria(assignability, tes.declaredType(TypeAndElementSource.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
+    final TypeAndElementSource tes = this.assignability.typeAndElementSource();
+    this.bean(BeanSelectionCriteria.of(this.assignability, tes.declaredType(Resolver.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
+    this.bean(BeanSelectionCriteria.of(this.assignability, tes.declaredType(BeanSet.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
+    this.bean(BeanSelectionCriteria.of(this.assignability, tes.declaredType(Assignability.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
+    this.bean(BeanSelectionCriteria.of(this.assignability, tes.declaredType(TypeAndElementSource.class), defaultQualifiers(), true), DefaultBeanSet::returnNull);
+
+    if (validateAndPrime) {
+      this.validateAndPrime();
+    }
   }
 
 
@@ -218,7 +374,56 @@ public class DefaultBeanSet implements BeanSet, Constable {
   @Override // BeanSet
   public final Bean<?> bean(final BeanSelectionCriteria beanSelectionCriteria,
                             final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends Bean<?>>, ? extends Bean<?>> op) {
-    return this.resolutionCache.computeIfAbsent(beanSelectionCriteria, s -> this.resolver.resolve(s, this.beans(s), op));
+    final Bean<?> b = this.preCalculatedResolutions.get(beanSelectionCriteria);
+    if (b != null) {
+      return b;
+    }
+    return
+      computeOnce(beanSelectionCriteria,
+                  this.resolutionCache,
+                  this.pendingResolutions,
+                  s -> this.resolve(s, op),
+                  this::selected);
+  }
+
+  private final Bean<?> resolve(final BeanSelectionCriteria beanSelectionCriteria,
+                                final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends Bean<?>>, ? extends Bean<?>> op) {
+    // Selections are in ascending rank order, so the stock resolver need not check or establish that order.
+    return
+      this.resolver == StockResolver.INSTANCE ?
+      TieredResolver.INSTANCE.resolveSorted(beanSelectionCriteria, this.beans(beanSelectionCriteria), op) :
+      this.resolver.resolve(beanSelectionCriteria, this.beans(beanSelectionCriteria), op);
+  }
+
+  // Resolves the BeanSelectionCriteria of every Dependency of every Bean in parallel, and throws a ResolutionException
+  // suppressing every resolution failure, if there were any.
+  private final void validateAndPrime() {
+    final Set<BeanSelectionCriteria> beanSelectionCriterias = new LinkedHashSet<>();
+    for (final Bean<?> b : this.beansView) {
+      for (final Dependency d : b.dependencies()) {
+        beanSelectionCriterias.add(d.beanSelectionCriteria());
+      }
+    }
+    final List<ResolutionException> failures = beanSelectionCriterias.parallelStream()
+      .map(this::validate)
+      .filter(Objects::nonNull)
+      .toList();
+    if (!failures.isEmpty()) {
+      final ResolutionException e = new ResolutionException(failures.size() + " dependencies could not be resolved");
+      for (final ResolutionException failure : failures) {
+        e.addSuppressed(failure);
+      }
+      throw e;
+    }
+  }
+
+  // Returns a ResolutionException if beanSelectionCriteria could not be resolved, or null if it was.
+  private final ResolutionException validate(final BeanSelectionCriteria beanSelectionCriteria) {
+    try {
+      return this.bean(beanSelectionCriteria) == null ? new UnsatisfiedResolutionException(beanSelectionCriteria) : null;
+    } catch (final ResolutionException e) {
+      return e;
+    }
   }
 
   @Override // BeanSet
@@ -228,21 +433,77 @@ public class DefaultBeanSet implements BeanSet, Constable {
 
   @Override // BeanSet
   public final SequencedSet<Bean<?>> beans(final BeanSelectionCriteria beanSelectionCriteria) {
-    return this.beans(beanSelectionCriteria, this.beansView);
+    return computeOnce(beanSelectionCriteria, this.selectionCache, this.pendingSelections, this::select, null);
   }
 
-  private final SequencedSet<Bean<?>> beans(final BeanSelectionCriteria beanSelectionCriteria,
-                                            final Collection<? extends Bean<?>> beans) {
-    return
-      this.selectionCache.computeIfAbsent(beanSelectionCriteria,
-                                          bsc -> beans.stream().filter(bsc::selects).collect(new BeanCollector()));
+  // Is a selection for beanSelectionCriteria still cached? A resolution is cached only if so, so that resolutions
+  // remain a subset of selections: a selection evicted while its resolution was being computed removed no resolution.
+  private final boolean selected(final BeanSelectionCriteria beanSelectionCriteria) {
+    return this.selectionCache.peek(beanSelectionCriteria) != null;
   }
 
+  // Selects Beans from the type index rather than from all Beans. Only Beans that share an index key with the
+  // criteria's type, or that have a type that could not be indexed, can possibly be selected, so only those are tested.
+  // The rank order of beansView is preserved.
+  private final SequencedSet<Bean<?>> select(final BeanSelectionCriteria beanSelectionCriteria) {
+    final String key = indexKey(beanSelectionCriteria.type());
+    if (key == null) {
+      return this.beansView.stream().filter(beanSelectionCriteria::selects).collect(new BeanCollector());
+    }
+    final int[] indexed = this.typeIndex.getOrDefault(key, EMPTY_INT_ARRAY);
+    final int[] unindexed = this.unindexedBeans;
+    final SequencedSet<Bean<?>> selection = new LinkedHashSet<>();
+    int i = 0;
+    int u = 0;
+    // Merge the two ascending ordinal arrays.
+    while (i < indexed.length || u < unindexed.length) {
+      final int ordinal;
+      if (u >= unindexed.length || i < indexed.length && indexed[i] < unindexed[u]) {
+        ordinal = indexed[i++];
+      } else if (i >= indexed.length || unindexed[u] < indexed[i]) {
+        ordinal = unindexed[u++];
+      } else {
+        ordinal = indexed[i++];
+        u++;
+      }
+      final Bean<?> b = this.beansArray[ordinal];
+      if (beanSelectionCriteria.selects(b)) {
+        selection.add(b);
+      }
+    }
+    return unmodifiableSequencedSet(selection);
+  }
+
+  /**
+   * Returns an {@link Optional} containing a {@link DynamicConstantDesc} that, when resolved, will yield a new {@link
+   * DefaultBeanSet} equivalent to this one, with its resolution cache primed with all resolutions performed so far, or
+   * an {@linkplain Optional#isEmpty() empty} {@link Optional} if this {@link DefaultBeanSet} cannot be so described.
+   *
+   * <p>The {@link Bean}s that every {@link DefaultBeanSet} adds to itself (those representing its {@link Resolver},
+   * itself, its {@link Assignability} and its {@link TypeAndElementSource}) are not described, since the constructor
+   * will add them again.</p>
+   *
+   * @return an {@link Optional}; never {@code null}
+   *
+   * @see BeanSetSnapshot
+   */
   @Override // Constable
   public Optional<DynamicConstantDesc<DefaultBeanSet>> describeConstable() {
+    final List<Bean<?>> beans = new ArrayList<>(this.beansView.size());
+    for (final Bean<?> b : this.beansView) {
+      if (!this.foundationalBeans.contains(b)) {
+        beans.add(b);
+      }
+    }
+    final Map<BeanSelectionCriteria, Bean<?>> resolutions = new HashMap<>();
+    for (final Entry<BeanSelectionCriteria, Bean<?>> e : this.resolutions().entrySet()) {
+      if (!this.foundationalBeans.contains(e.getValue())) {
+        resolutions.put(e.getKey(), e.getValue());
+      }
+    }
     return this.assignability.describeConstable()
-      .flatMap(aDesc -> Constables.describeConstable(this.beansView)
-               .flatMap(beansDesc -> Constables.describeConstable(this.resolutionCache)
+      .flatMap(aDesc -> Constables.describeConstable(beans)
+               .flatMap(beansDesc -> Constables.describeConstable(resolutions)
                         .flatMap(pcrDesc -> Constables.describeConstable(this.resolver)
                                  .map(resolverDesc -> DynamicConstantDesc.of(BSM_INVOKE,
                                                                              MethodHandleDesc.ofConstructor(CD_DefaultBeanSet,
@@ -261,15 +522,46 @@ public class DefaultBeanSet implements BeanSet, Constable {
    */
 
   public final Set<BeanSelectionCriteria> beanSelectionCriterias() {
-    return this.selectionCache.keySet();
+    return this.selectionCache.snapshot().keySet();
   }
 
   public final SequencedSet<Bean<?>> resolvedBeans() {
-    return this.resolutionCache.values().stream().collect(new BeanCollector());
+    return this.resolutions().values().stream().collect(new BeanCollector());
   }
 
   public final SequencedSet<Bean<?>> selectedBeans() {
-    return this.selectionCache.values().stream().flatMap(Set::stream).collect(new BeanCollector());
+    return this.selectionCache.snapshot().values().stream().flatMap(Set::stream).collect(new BeanCollector());
+  }
+
+  /**
+   * Returns {@link CachePolicy.Statistics} describing this {@link DefaultBeanSet}'s use of its selection cache.
+   *
+   * @return {@link CachePolicy.Statistics}; never {@code null}
+   *
+   * @see #beans(BeanSelectionCriteria)
+   */
+  public final CachePolicy.Statistics selectionCacheStatistics() {
+    return this.selectionCache.statistics();
+  }
+
+  /**
+   * Returns {@link CachePolicy.Statistics} describing this {@link DefaultBeanSet}'s use of its resolution cache.
+   *
+   * <p>Lookups of resolutions supplied at construction time are not counted.</p>
+   *
+   * @return {@link CachePolicy.Statistics}; never {@code null}
+   *
+   * @see #bean(BeanSelectionCriteria)
+   */
+  public final CachePolicy.Statistics resolutionCacheStatistics() {
+    return this.resolutionCache.statistics();
+  }
+
+  // Returns a snapshot of all resolutions, pre-calculated or cached.
+  private final Map<BeanSelectionCriteria, Bean<?>> resolutions() {
+    final Map<BeanSelectionCriteria, Bean<?>> resolutions = new HashMap<>(this.resolutionCache.snapshot());
+    resolutions.putAll(this.preCalculatedResolutions);
+    return resolutions;
   }
 
   public final SequencedSet<Bean<?>> unselectedBeans() {
@@ -333,6 +625,122 @@ public class DefaultBeanSet implements BeanSet, Constable {
     return signum(b0.rank() - b1.rank());
   }
 
+  // Returns the key under which the supplied TypeMirror is indexed, or null if it cannot be indexed. Two types that
+  // could match each other (see Assignability#matches(TypeMirror, TypeMirror)) always have equal keys.
+  private static final String indexKey(final TypeMirror t) {
+    return switch (t.getKind()) {
+    // Primitive types match their wrapper types and vice versa.
+    case BOOLEAN -> "java.lang.Boolean";
+    case BYTE -> "java.lang.Byte";
+    case CHAR -> "java.lang.Character";
+    case DOUBLE -> "java.lang.Double";
+    case FLOAT -> "java.lang.Float";
+    case INT -> "java.lang.Integer";
+    case LONG -> "java.lang.Long";
+    case SHORT -> "java.lang.Short";
+    // Array types match only if their element types are identical.
+    case ARRAY -> {
+      final TypeMirror et = elementType(t);
+      yield switch (et.getKind()) {
+      case BOOLEAN, BYTE, CHAR, DOUBLE, FLOAT, INT, LONG, SHORT -> et.getKind().name() + "[]";
+      case DECLARED -> indexKey(et) + "[]";
+      default -> null;
+      };
+    }
+    // Declared types match only if their declarations are identical.
+    case DECLARED -> ((QualifiedNameable)((DeclaredType)t).asElement()).getQualifiedName().toString();
+    default -> null;
+    };
+  }
+
+  // Returns the element type of t if t is an array type. Returns t in all other cases.
+  private static final TypeMirror elementType(final TypeMirror t) {
+    return t.getKind() == TypeKind.ARRAY ? elementType(((ArrayType)t).getComponentType()) : t;
+  }
+
+  private static final int[] toIntArray(final List<Integer> ints) {
+    final int size = ints.size();
+    if (size == 0) {
+      return EMPTY_INT_ARRAY;
+    }
+    final int[] rv = new int[size];
+    for (int i = 0; i < size; i++) {
+      rv[i] = ints.get(i);
+    }
+    return rv;
+  }
+
+  // Returns the value cached under key, computing it with f and caching it if necessary. Unlike
+  // ConcurrentHashMap#computeIfAbsent(Object, Function), f is not invoked while holding any lock, so that expensive
+  // computations for different keys never contend. Concurrent callers for the same key wait for the caller that is
+  // computing it (and, if that computation fails, try again themselves). A null value is returned but not cached.
+  // Because callers may supply different fs, a caller that waited for a null value computes its own. If retain is not
+  // null, a newly cached value is removed again unless retain, tested after caching it, permits it to remain.
+  private static final <V> V computeOnce(final BeanSelectionCriteria key,
+                                         final CachePolicy.Cache<V> cache,
+                                         final ConcurrentMap<BeanSelectionCriteria, Pending<V>> pending,
+                                         final Function<? super BeanSelectionCriteria, ? extends V> f,
+                                         final Predicate<? super BeanSelectionCriteria> retain) {
+    while (true) {
+      V v = cache.get(key);
+      if (v != null) {
+        return v;
+      }
+      Pending<V> existing = pending.get(key);
+      if (existing == null) {
+        final Pending<V> p = new Pending<>();
+        existing = pending.putIfAbsent(key, p);
+        if (existing == null) {
+          try {
+            // The owner of a prior slot may have published its value and released its slot after our first check.
+            v = cache.peek(key);
+            if (v == null) {
+              v = load(key, cache, f, retain);
+            }
+            p.complete(v);
+            return v;
+          } catch (final RuntimeException | Error e) {
+            p.completeExceptionally(e);
+            throw e;
+          } finally {
+            pending.remove(key, p);
+          }
+        }
+      }
+      if (existing.owner == Thread.currentThread()) {
+        throw new IllegalStateException("recursive computation for " + key);
+      }
+      try {
+        v = existing.join();
+      } catch (final CompletionException e) {
+        // The owner failed and has reported its failure; try again.
+        continue;
+      }
+      // A null value was produced by the owner's f, which may not behave as ours does (for example, ours may throw
+      // where the owner's returned null).
+      return v == null ? load(key, cache, f, retain) : v;
+    }
+  }
+
+  // Computes the value for key with f, recording the time taken, and caches it if it is not null (and, if retain is not
+  // null, if retain permits it).
+  private static final <V> V load(final BeanSelectionCriteria key,
+                                  final CachePolicy.Cache<V> cache,
+                                  final Function<? super BeanSelectionCriteria, ? extends V> f,
+                                  final Predicate<? super BeanSelectionCriteria> retain) {
+    final long start = System.nanoTime();
+    final V v = f.apply(key);
+    cache.loaded(System.nanoTime() - start);
+    if (v != null) {
+      // Cache under the canonical criteria, so that lookups with canonical criteria are decided by identity.
+      cache.put(key.intern(), v);
+      if (retain != null && !retain.test(key)) {
+        cache.remove(key);
+      }
+    }
+    return v;
+  }
+
   private static final Bean<?> returnNull(final BeanSelectionCriteria x, final Collection<? extends Bean<?>> xx) {
     return null;
   }
@@ -351,9 +759,30 @@ public class DefaultBeanSet implements BeanSet, Constable {
       super();
     }
 
+    // Callers other than DefaultBeanSet itself may supply candidates in any order.
+    @Override // Resolver
+    public final <T extends Alternate> T resolve(final BeanSelectionCriteria beanSelectionCriteria,
+                                                 final Collection<? extends T> alternates,
+                                                 final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> failureHandler) {
+      return TieredResolver.INSTANCE.resolve(beanSelectionCriteria, alternates, failureHandler);
+    }
+
+    // DefaultBeanSet's constructor supplies a StockResolver when its resolver argument is null.
     @Override // Constable
-    public final Optional<DynamicConstantDesc<StockResolver>> describeConstable() {
-      return Optional.empty();
+    public final Optional<ConstantDesc> describeConstable() {
+      return Optional.of(NULL);
+    }
+
+  }
+
+  // A slot holding the eventual result of a computation being performed by its owner thread.
+  private static final class Pending<V> extends CompletableFuture<V> {
+
+    private final Thread owner;
+
+    private Pending() {
+      super();
+      this.owner = Thread.currentThread();
     }
 
   }
@@ -15,6 +15,9 @@ package org.microbean.bean;
 
 import java.util.Objects;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 public class DefaultCreation<I> implements AutoCloseableRegistry, Creation<I> {
 
   private final AutoCloseableRegistry registry;
@@ -58,6 +61,11 @@ public class DefaultCreation<I> implements AutoCloseableRegistry, Creation<I> {
     this.registry.close();
   }
 
+  @Override // AutoCloseableRegistry
+  public final CompletionStage<Void> closeAsync(final Executor executor) {
+    return this.registry.closeAsync(executor);
+  }
+
   @Override // AutoCloseableRegistry
   public final boolean closed() {
     return this.registry.closed();
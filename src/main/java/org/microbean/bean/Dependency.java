@@ -92,7 +92,7 @@ public final class Dependency implements Constable {
       a = new Assignability();
     }
     this.e = DelegatingElement.of(e, a.typeAndElementSource());
-    this.bsc = new BeanSelectionCriteria(a, this.e.asType(), List.copyOf(attributes), box);
+    this.bsc = BeanSelectionCriteria.of(a, this.e.asType(), attributes, box);
     switch (this.e.getKind()) {
     case FIELD:
     case PARAMETER:
@@ -138,11 +138,11 @@ public final class Dependency implements Constable {
     super();
     if (e == null) {
       this.e = null;
-      this.bsc = Objects.requireNonNull(bsc, "bsc");
+      this.bsc = Objects.requireNonNull(bsc, "bsc").intern();
     } else {
       final Assignability a = bsc.assignability();
       this.e = DelegatingElement.of(e, a.typeAndElementSource());
-      this.bsc = new BeanSelectionCriteria(a, e == null ? bsc.type() : e.asType(), bsc.attributes(), bsc.box());
+      this.bsc = BeanSelectionCriteria.of(a, e.asType(), bsc.attributes(), bsc.box());
       switch (this.e.getKind()) {
       case FIELD:
       case PARAMETER:
@@ -195,7 +195,7 @@ public final class Dependency implements Constable {
   public final int hashCode() {
     int hashCode = 17;
     hashCode = 37 * hashCode + this.beanSelectionCriteria().hashCode();
-    hashCode = 37 * hashCode + this.element().hashCode();
+    hashCode = 37 * hashCode + Objects.hashCode(this.element());
     return hashCode;
   }
 
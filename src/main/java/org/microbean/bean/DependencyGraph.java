@@ -0,0 +1,468 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable graph of the {@linkplain Aggregate#dependencies() dependencies} among the {@link Bean}s in a {@link
+ * BeanSet}.
+ *
+ * <p>Each {@link Bean} is identified by its <em>ordinal</em>: its position in the {@linkplain BeanSet#beans() iteration
+ * order} of the {@link BeanSet} from which the graph was built. An edge runs from a {@link Bean} to each distinct
+ * {@link Bean} that one of its {@link Dependency} instances resolves to. Edges are stored in primitive {@code int}
+ * arrays, in both directions.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #topologicalOrder()
+ *
+ * @see #stronglyConnectedComponents()
+ */
+public final class DependencyGraph {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  private static final int[] EMPTY_INT_ARRAY = new int[0];
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Bean<?>[] beans;
+
+  private final Map<Bean<?>, Integer> ordinals;
+
+  // The dependencies of the Bean with ordinal i are dependencies[dependencyOffsets[i]] up to but not including
+  // dependencies[dependencyOffsets[i + 1]].
+  private final int[] dependencyOffsets;
+
+  private final int[] dependencies;
+
+  // The dependents of the Bean with ordinal i are dependents[dependentOffsets[i]] up to but not including
+  // dependents[dependentOffsets[i + 1]].
+  private final int[] dependentOffsets;
+
+  private final int[] dependents;
+
+  // Dependencies before dependents. Shorter than beans if and only if there is a cycle.
+  private final int[] topologicalOrder;
+
+  // The strongly connected component of the Bean with ordinal i is components[i].
+  private final int[] components;
+
+  private final int componentCount;
+
+  // Ordinals of Beans grouped by strongly connected component; component c is componentMembers[componentOffsets[c]] up
+  // to but not including componentMembers[componentOffsets[c + 1]]. Components are numbered so that a component's
+  // dependencies have lower numbers than it does.
+  private final int[] componentOffsets;
+
+  private final int[] componentMembers;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link DependencyGraph} by {@linkplain BeanSet#bean(BeanSelectionCriteria) resolving} every {@link
+   * Dependency} of every {@link Bean} in the supplied {@link BeanSet}.
+   *
+   * @param beanSet a {@link BeanSet}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code beanSet} is {@code null}
+   *
+   * @exception UnsatisfiedResolutionException if a {@link Dependency} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link Dependency} could not be resolved unambiguously
+   *
+   * @exception IllegalArgumentException if a {@link Dependency} resolves to a {@link Bean} that is not one of the
+   * {@link BeanSet}'s {@linkplain BeanSet#beans() beans}
+   */
+  public DependencyGraph(final BeanSet beanSet) {
+    super();
+    this.beans = beanSet.beans().toArray(new Bean<?>[0]);
+    final int size = this.beans.length;
+    final Map<Bean<?>, Integer> ordinals = HashMap.newHashMap(size);
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      ordinals.put(this.beans[ordinal], ordinal);
+    }
+    this.ordinals = ordinals;
+
+    // Forward edges.
+    this.dependencyOffsets = new int[size + 1];
+    int[] dependencies = new int[size];
+    int edgeCount = 0;
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      final int start = edgeCount;
+      for (final Dependency d : this.beans[ordinal].dependencies()) {
+        final BeanSelectionCriteria bsc = d.beanSelectionCriteria();
+        final Bean<?> b = beanSet.bean(bsc);
+        if (b == null) {
+          throw new UnsatisfiedResolutionException(bsc);
+        }
+        final Integer target = ordinals.get(b);
+        if (target == null) {
+          throw new IllegalArgumentException("beanSet; " + bsc + " resolved to an unknown bean: " + b);
+        }
+        if (edgeCount == dependencies.length) {
+          dependencies = Arrays.copyOf(dependencies, edgeCount * 2 + 1);
+        }
+        dependencies[edgeCount++] = target;
+      }
+      // Several dependencies may resolve to the same Bean; keep one edge for each.
+      Arrays.sort(dependencies, start, edgeCount);
+      edgeCount = distinct(dependencies, start, edgeCount);
+      this.dependencyOffsets[ordinal + 1] = edgeCount;
+    }
+    this.dependencies = edgeCount == 0 ? EMPTY_INT_ARRAY : Arrays.copyOf(dependencies, edgeCount);
+
+    // Reverse edges.
+    this.dependentOffsets = new int[size + 1];
+    for (final int target : this.dependencies) {
+      this.dependentOffsets[target + 1]++;
+    }
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      this.dependentOffsets[ordinal + 1] += this.dependentOffsets[ordinal];
+    }
+    this.dependents = edgeCount == 0 ? EMPTY_INT_ARRAY : new int[edgeCount];
+    final int[] next = Arrays.copyOf(this.dependentOffsets, size);
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      for (int i = this.dependencyOffsets[ordinal]; i < this.dependencyOffsets[ordinal + 1]; i++) {
+        this.dependents[next[this.dependencies[i]]++] = ordinal;
+      }
+    }
+
+    this.topologicalOrder = this.computeTopologicalOrder();
+    this.components = new int[size];
+    this.componentOffsets = new int[size + 1];
+    this.componentMembers = new int[size];
+    this.componentCount = this.computeStronglyConnectedComponents();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the number of {@link Bean}s in this {@link DependencyGraph}.
+   *
+   * @return the number of {@link Bean}s in this {@link DependencyGraph}
+   */
+  public final int size() {
+    return this.beans.length;
+  }
+
+  /**
+   * Returns the {@link Bean} with the supplied ordinal.
+   *
+   * @param ordinal an ordinal; must be greater than or equal to {@code 0} and less than {@link #size()}
+   *
+   * @return a non-{@code null} {@link Bean}
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final Bean<?> bean(final int ordinal) {
+    return this.beans[ordinal];
+  }
+
+  /**
+   * Returns the ordinal of the supplied {@link Bean}, or {@code -1} if it is not in this {@link DependencyGraph}.
+   *
+   * @param bean a {@link Bean}; may be {@code null} in which case {@code -1} will be returned
+   *
+   * @return the ordinal of the supplied {@link Bean}, or {@code -1}
+   */
+  public final int ordinal(final Bean<?> bean) {
+    final Integer ordinal = bean == null ? null : this.ordinals.get(bean);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  /**
+   * Returns the number of distinct {@link Bean}s the {@link Bean} with the supplied ordinal depends on.
+   *
+   * @param ordinal an ordinal
+   *
+   * @return the number of dependencies
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final int dependencyCount(final int ordinal) {
+    return this.dependencyOffsets[ordinal + 1] - this.dependencyOffsets[ordinal];
+  }
+
+  /**
+   * Returns a new array of the ordinals of the distinct {@link Bean}s the {@link Bean} with the supplied ordinal
+   * depends on, in ascending order.
+   *
+   * @param ordinal an ordinal
+   *
+   * @return a non-{@code null} array
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final int[] dependencies(final int ordinal) {
+    return Arrays.copyOfRange(this.dependencies, this.dependencyOffsets[ordinal], this.dependencyOffsets[ordinal + 1]);
+  }
+
+  /**
+   * Returns the number of {@link Bean}s that depend on the {@link Bean} with the supplied ordinal.
+   *
+   * @param ordinal an ordinal
+   *
+   * @return the number of dependents
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final int dependentCount(final int ordinal) {
+    return this.dependentOffsets[ordinal + 1] - this.dependentOffsets[ordinal];
+  }
+
+  /**
+   * Returns a new array of the ordinals of the {@link Bean}s that depend on the {@link Bean} with the supplied ordinal,
+   * in ascending order.
+   *
+   * @param ordinal an ordinal
+   *
+   * @return a non-{@code null} array
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final int[] dependents(final int ordinal) {
+    return Arrays.copyOfRange(this.dependents, this.dependentOffsets[ordinal], this.dependentOffsets[ordinal + 1]);
+  }
+
+  /**
+   * Returns {@code true} if and only if this {@link DependencyGraph} contains at least one cycle, including a {@link
+   * Bean} that depends on itself.
+   *
+   * @return {@code true} if and only if this {@link DependencyGraph} contains at least one cycle
+   */
+  public final boolean cyclic() {
+    return this.topologicalOrder.length < this.beans.length;
+  }
+
+  /**
+   * Returns a new array of all ordinals in an order in which every {@link Bean} appears after all of the {@link Bean}s
+   * it depends on.
+   *
+   * @return a non-{@code null} array
+   *
+   * @exception IllegalStateException if this {@link DependencyGraph} is {@linkplain #cyclic() cyclic}
+   *
+   * @see #cycles()
+   */
+  public final int[] topologicalOrder() {
+    if (this.cyclic()) {
+      throw new IllegalStateException("cycles: " + this.cycles());
+    }
+    return this.topologicalOrder.clone();
+  }
+
+  /**
+   * Returns the number of strongly connected components in this {@link DependencyGraph}.
+   *
+   * @return the number of strongly connected components
+   */
+  public final int componentCount() {
+    return this.componentCount;
+  }
+
+  /**
+   * Returns the number of the strongly connected component the {@link Bean} with the supplied ordinal belongs to.
+   *
+   * <p>Components are numbered from {@code 0} so that every component is numbered higher than every component it
+   * depends on.</p>
+   *
+   * @param ordinal an ordinal
+   *
+   * @return a component number
+   *
+   * @exception IndexOutOfBoundsException if {@code ordinal} is invalid
+   */
+  public final int component(final int ordinal) {
+    return this.components[ordinal];
+  }
+
+  /**
+   * Returns an immutable {@link List} of the strongly connected components of this {@link DependencyGraph}, each
+   * represented as an immutable {@link List} of {@link Bean}s, in {@linkplain #component(int) component number}
+   * order.
+   *
+   * @return a non-{@code null}, immutable {@link List}
+   */
+  public final List<List<Bean<?>>> stronglyConnectedComponents() {
+    final List<List<Bean<?>>> list = new ArrayList<>(this.componentCount());
+    for (int c = 0; c < this.componentCount(); c++) {
+      list.add(this.componentBeans(c));
+    }
+    return List.copyOf(list);
+  }
+
+  /**
+   * Returns an immutable {@link List} of those {@linkplain #stronglyConnectedComponents() strongly connected
+   * components} that contain a cycle.
+   *
+   * @return a non-{@code null}, immutable {@link List}; {@linkplain List#isEmpty() empty} if and only if this {@link
+   * DependencyGraph} is not {@linkplain #cyclic() cyclic}
+   */
+  public final List<List<Bean<?>>> cycles() {
+    final List<List<Bean<?>>> list = new ArrayList<>();
+    for (int c = 0; c < this.componentCount(); c++) {
+      final int start = this.componentOffsets[c];
+      final int end = this.componentOffsets[c + 1];
+      if (end - start > 1 || this.dependsOnItself(this.componentMembers[start])) {
+        list.add(this.componentBeans(c));
+      }
+    }
+    return List.copyOf(list);
+  }
+
+  private final List<Bean<?>> componentBeans(final int component) {
+    final int start = this.componentOffsets[component];
+    final int end = this.componentOffsets[component + 1];
+    final Bean<?>[] members = new Bean<?>[end - start];
+    for (int i = start; i < end; i++) {
+      members[i - start] = this.beans[this.componentMembers[i]];
+    }
+    return List.of(members);
+  }
+
+  private final boolean dependsOnItself(final int ordinal) {
+    return
+      Arrays.binarySearch(this.dependencies, this.dependencyOffsets[ordinal], this.dependencyOffsets[ordinal + 1], ordinal) >= 0;
+  }
+
+  // Kahn's algorithm.
+  private final int[] computeTopologicalOrder() {
+    final int size = this.beans.length;
+    final int[] remaining = new int[size];
+    final int[] order = new int[size];
+    int tail = 0;
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      remaining[ordinal] = this.dependencyCount(ordinal);
+      if (remaining[ordinal] == 0) {
+        order[tail++] = ordinal;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      final int ordinal = order[head];
+      for (int i = this.dependentOffsets[ordinal]; i < this.dependentOffsets[ordinal + 1]; i++) {
+        final int dependent = this.dependents[i];
+        if (--remaining[dependent] == 0) {
+          order[tail++] = dependent;
+        }
+      }
+    }
+    return tail == size ? order : Arrays.copyOf(order, tail);
+  }
+
+  // Tarjan's algorithm, iteratively, so that long dependency chains cannot overflow the stack. Tarjan's algorithm
+  // completes a component only after every component reachable from it, i.e. every component it depends on, so
+  // components are numbered in dependency order.
+  private final int computeStronglyConnectedComponents() {
+    final int size = this.beans.length;
+    final int[] index = new int[size];
+    Arrays.fill(index, -1);
+    final int[] lowLink = new int[size];
+    final boolean[] onStack = new boolean[size];
+    final int[] stack = new int[size];
+    int stackSize = 0;
+    final int[] callStack = new int[size];
+    final int[] edgePositions = new int[size];
+    int nextIndex = 0;
+    int componentCount = 0;
+    int memberCount = 0;
+    for (int root = 0; root < size; root++) {
+      if (index[root] >= 0) {
+        continue;
+      }
+      int depth = 0;
+      callStack[0] = root;
+      edgePositions[0] = this.dependencyOffsets[root];
+      index[root] = lowLink[root] = nextIndex++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        final int v = callStack[depth];
+        if (edgePositions[depth] < this.dependencyOffsets[v + 1]) {
+          final int w = this.dependencies[edgePositions[depth]++];
+          if (index[w] < 0) {
+            index[w] = lowLink[w] = nextIndex++;
+            stack[stackSize++] = w;
+            onStack[w] = true;
+            callStack[++depth] = w;
+            edgePositions[depth] = this.dependencyOffsets[w];
+          } else if (onStack[w] && index[w] < lowLink[v]) {
+            lowLink[v] = index[w];
+          }
+        } else {
+          if (lowLink[v] == index[v]) {
+            int w;
+            do {
+              w = stack[--stackSize];
+              onStack[w] = false;
+              this.components[w] = componentCount;
+              this.componentMembers[memberCount++] = w;
+            } while (w != v);
+            this.componentOffsets[++componentCount] = memberCount;
+          }
+          if (--depth >= 0) {
+            final int parent = callStack[depth];
+            if (lowLink[v] < lowLink[parent]) {
+              lowLink[parent] = lowLink[v];
+            }
+          }
+        }
+      }
+    }
+    assert memberCount == size;
+    return componentCount;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  // Removes adjacent duplicates from a[start, end), which must be sorted, and returns the new end.
+  private static final int distinct(final int[] a, final int start, final int end) {
+    if (end - start < 2) {
+      return end;
+    }
+    int last = start;
+    for (int i = start + 1; i < end; i++) {
+      if (a[i] != a[last]) {
+        a[++last] = a[i];
+      }
+    }
+    return last + 1;
+  }
+
+}
@@ -20,11 +20,24 @@ import java.lang.System.Logger;
 
 import java.lang.ref.WeakReference;
 
+import java.time.Duration;
+
 import java.util.Objects;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import java.util.function.Consumer;
 
 import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
 
 /**
  * An {@link AutoCloseable} {@link WeakReference} that formally disposes of referents after they have been {@linkplain
@@ -193,7 +206,7 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
       try {
         this.disposer.accept(this.referent);
       } catch (RuntimeException | Error e) {
-        DISPOSED.setVolatile(false); // volatile write; oops; our optimism was misplaced
+        DISPOSED.setVolatile(this, false); // volatile write; oops; our optimism was misplaced
         throw e;
       }
       return true;
@@ -221,6 +234,41 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
    */
 
 
+  /**
+   * Returns a snapshot of {@link Metrics} describing the disposal of {@link DisposableReference}s.
+   *
+   * <p>Disposal is configured using the following system properties, read once:</p>
+   *
+   * <dl>
+   *
+   * <dt>{@code org.microbean.bean.DisposableReference.workers}</dt>
+   *
+   * <dd>The number of platform threads on which disposers run; {@code 1} by default</dd>
+   *
+   * <dt>{@code org.microbean.bean.DisposableReference.virtualThreads}</dt>
+   *
+   * <dd>If {@code true}, each disposer runs on its own virtual thread and the {@code workers} property is ignored;
+   * {@code false} by default</dd>
+   *
+   * <dt>{@code org.microbean.bean.DisposableReference.maxInFlight}</dt>
+   *
+   * <dd>The greatest number of {@link DisposableReference}s whose disposal may be outstanding at any one time; when it is
+   * reached, further {@link DisposableReference}s are {@linkplain Metrics#queued() queued} until disposals complete;
+   * {@code 16} times the number of workers, or {@code 256} if virtual threads are used, by default</dd>
+   *
+   * </dl>
+   *
+   * <p>A disposer that throws an exception is counted as a {@linkplain Metrics#failed() failure} and logged; it does
+   * not affect the disposal of other {@link DisposableReference}s.</p>
+   *
+   * @return a non-{@code null} {@link Metrics}
+   *
+   * @threadsafety This method is safe for concurrent use by multiple threads.
+   */
+  public static final Metrics metrics() {
+    return ReferenceQueue.INSTANCE.metrics();
+  }
+
   private static final <R> void noopDispose(final R r) {
     if (LOGGER.isLoggable(DEBUG)) {
       LOGGER.log(DEBUG, "DisposableReference referent " + r + " has been cleared");
@@ -233,6 +281,60 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
    */
 
 
+  /**
+   * A snapshot of metrics describing the disposal of {@link DisposableReference}s since the Java Virtual Machine
+   * started.
+   *
+   * @param queued the number of {@link DisposableReference}s that have been removed from the reference queue but whose
+   * disposal has not yet started because the {@code maxInFlight} limit has been reached
+   *
+   * @param inFlight the number of {@link DisposableReference}s whose disposal has started but not yet completed
+   *
+   * @param disposed the number of {@link DisposableReference}s whose disposal completed without an exception
+   *
+   * @param failed the number of {@link DisposableReference}s whose disposers threw an exception
+   *
+   * @param totalLatency the sum of the times between each {@link DisposableReference}'s removal from the reference queue
+   * and the completion of its disposal; must not be {@code null}
+   *
+   * @param maxLatency the greatest such time; must not be {@code null}
+   *
+   * @see DisposableReference#metrics()
+   */
+  public static final record Metrics(int queued,
+                                     int inFlight,
+                                     long disposed,
+                                     long failed,
+                                     Duration totalLatency,
+                                     Duration maxLatency) {
+
+    /**
+     * Creates a new {@link Metrics}.
+     *
+     * @exception NullPointerException if {@code totalLatency} or {@code maxLatency} is {@code null}
+     */
+    public Metrics {
+      Objects.requireNonNull(totalLatency, "totalLatency");
+      Objects.requireNonNull(maxLatency, "maxLatency");
+    }
+
+    /**
+     * Returns the mean time between a {@link DisposableReference}'s removal from the reference queue and the completion
+     * of its disposal.
+     *
+     * @return a non-{@code null} {@link Duration}
+     */
+    public final Duration averageLatency() {
+      final long count = this.disposed() + this.failed();
+      return count == 0L ? Duration.ZERO : this.totalLatency().dividedBy(count);
+    }
+
+  }
+
+  // Removes DisposableReferences as they are enqueued and hands them to an Executor for disposal, admitting at most
+  // MAX_IN_FLIGHT at a time so that a burst of enqueued references waits, counted, in a queue of its own rather than in
+  // the Executor. The removing thread never disposes of anything itself, so the reference queue is always drained
+  // promptly and the number of references awaiting disposal is always known.
   private static final class ReferenceQueue extends java.lang.ref.ReferenceQueue<Object> implements Runnable {
 
 
@@ -241,6 +343,17 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
      */
 
 
+    private static final String PREFIX = DisposableReference.class.getName() + ".";
+
+    // Whether disposers run on virtual threads.
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean(PREFIX + "virtualThreads");
+
+    // The number of platform threads disposers run on, if they do not run on virtual threads.
+    private static final int WORKERS = Math.max(1, Integer.getInteger(PREFIX + "workers", 1));
+
+    private static final int MAX_IN_FLIGHT =
+      Math.max(1, Integer.getInteger(PREFIX + "maxInFlight", VIRTUAL_THREADS ? 256 : WORKERS * 16));
+
     private static final ReferenceQueue INSTANCE = new ReferenceQueue();
 
     static {
@@ -251,6 +364,29 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
     }
 
 
+    /*
+     * Instance fields.
+     */
+
+
+    private final Executor executor;
+
+    private final Semaphore permits;
+
+    // Disposals removed from the reference queue but not yet admitted.
+    private final ConcurrentLinkedQueue<Runnable> pending;
+
+    private final AtomicInteger queued;
+
+    private final LongAdder disposed;
+
+    private final LongAdder failed;
+
+    private final LongAdder totalLatency;
+
+    private final AtomicLong maxLatency;
+
+
     /*
      * Constructors.
      */
@@ -258,6 +394,22 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
 
     private ReferenceQueue() {
       super();
+      if (VIRTUAL_THREADS) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("DisposableReference disposer ", 0L).factory());
+      } else {
+        this.executor = Executors.newFixedThreadPool(WORKERS, Thread.ofPlatform()
+                                                     .name("DisposableReference disposer ", 0L)
+                                                     .daemon()
+                                                     .priority(3)
+                                                     .factory());
+      }
+      this.permits = new Semaphore(MAX_IN_FLIGHT);
+      this.pending = new ConcurrentLinkedQueue<>();
+      this.queued = new AtomicInteger();
+      this.disposed = new LongAdder();
+      this.failed = new LongAdder();
+      this.totalLatency = new LongAdder();
+      this.maxLatency = new AtomicLong();
     }
 
 
@@ -269,14 +421,67 @@ public final class DisposableReference<R> extends WeakReference<R> implements Au
     @Override // Runnable
     public final void run() {
       while (!Thread.currentThread().isInterrupted()) {
+        final DisposableReference<?> r;
         try {
-          ((DisposableReference<?>)this.remove()).dispose();
+          r = (DisposableReference<?>)this.remove();
         } catch (final InterruptedException e) {
           Thread.currentThread().interrupt();
+          break;
         }
+        final long start = System.nanoTime();
+        this.queued.incrementAndGet();
+        this.pending.offer(() -> this.dispose(r, start));
+        this.admit();
       }
     }
 
+    // Hands pending disposals to the Executor while permits remain. Called after a disposal is queued and after one
+    // completes, so that whichever of the two happens last admits it.
+    private final void admit() {
+      while (!this.pending.isEmpty() && this.permits.tryAcquire()) {
+        final Runnable disposal = this.pending.poll();
+        if (disposal == null) {
+          this.permits.release();
+          continue;
+        }
+        this.queued.decrementAndGet();
+        try {
+          this.executor.execute(() -> {
+              disposal.run();
+              this.admit();
+            });
+        } catch (final RejectedExecutionException e) {
+          disposal.run();
+        }
+      }
+    }
+
+    private final void dispose(final DisposableReference<?> r, final long start) {
+      try {
+        r.dispose();
+        this.disposed.increment();
+      } catch (final RuntimeException | Error e) {
+        this.failed.increment();
+        if (LOGGER.isLoggable(WARNING)) {
+          LOGGER.log(WARNING, "Disposal of DisposableReference " + r + " failed", e);
+        }
+      } finally {
+        final long latency = System.nanoTime() - start;
+        this.totalLatency.add(latency);
+        this.maxLatency.accumulateAndGet(latency, Math::max);
+        this.permits.release();
+      }
+    }
+
+    private final Metrics metrics() {
+      return new Metrics(this.queued.get(),
+                         MAX_IN_FLIGHT - this.permits.availablePermits(),
+                         this.disposed.sum(),
+                         this.failed.sum(),
+                         Duration.ofNanos(this.totalLatency.sum()),
+                         Duration.ofNanos(this.maxLatency.get()));
+    }
+
   }
 
 }
@@ -64,10 +64,18 @@ public final record Id(BeanTypeList types,
 
   public Id {
     types = Objects.requireNonNull(types, "types");
-    attributes = List.copyOf(attributes);
+    attributes = AttributeList.of(attributes);
     governingScopeId = Objects.requireNonNull(governingScopeId, "governingScopeId");
   }
 
+  public final List<NamedAttributeMap<?>> interceptorBindings() {
+    return AttributeList.of(this.attributes()).interceptorBindings();
+  }
+
+  public final List<NamedAttributeMap<?>> qualifiers() {
+    return AttributeList.of(this.attributes()).qualifiers();
+  }
+
   @Override // Constable
   public final Optional<DynamicConstantDesc<Id>> describeConstable() {
     return Constables.describeConstable(this.attributes())
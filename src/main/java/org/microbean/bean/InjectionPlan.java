@@ -0,0 +1,158 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable, ordered sequence of {@link BeanSelectionCriteria} together with the {@link Bean}s they {@linkplain
+ * BeanSet#bean(BeanSelectionCriteria) resolve to} in a particular {@link BeanSet}, resolved once, at construction time.
+ *
+ * <p>An {@link InjectionPlan} is typically built once per injection point (a constructor or method with many
+ * parameters, for example) and then handed to {@link ReferenceSelector#references(InjectionPlan, Creation, Object[])}
+ * every time references for that injection point are needed.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see ReferenceSelector#references(InjectionPlan, Creation, Object[])
+ */
+public final class InjectionPlan {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final BeanSet beanSet;
+
+  private final BeanSelectionCriteria[] beanSelectionCriteria;
+
+  private final Bean<?>[] beans;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link InjectionPlan}.
+   *
+   * @param beanSet the {@link BeanSet} in which to resolve each {@link BeanSelectionCriteria}; must not be {@code null}
+   *
+   * @param beanSelectionCriteria the {@link BeanSelectionCriteria} to resolve, in order; must not be {@code null} and
+   * must not contain {@code null} elements
+   *
+   * @exception NullPointerException if either argument is {@code null} or if {@code beanSelectionCriteria} contains a
+   * {@code null} element
+   *
+   * @exception UnsatisfiedResolutionException if a {@link BeanSelectionCriteria} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link BeanSelectionCriteria} could not be resolved unambiguously
+   */
+  public InjectionPlan(final BeanSet beanSet, final List<? extends BeanSelectionCriteria> beanSelectionCriteria) {
+    this(beanSet, beanSelectionCriteria.toArray(new BeanSelectionCriteria[0]));
+  }
+
+  /**
+   * Creates a new {@link InjectionPlan}.
+   *
+   * @param beanSet the {@link BeanSet} in which to resolve each {@link BeanSelectionCriteria}; must not be {@code null}
+   *
+   * @param beanSelectionCriteria the {@link BeanSelectionCriteria} to resolve, in order; must not be {@code null} and
+   * must not contain {@code null} elements; is cloned
+   *
+   * @exception NullPointerException if either argument is {@code null} or if {@code beanSelectionCriteria} contains a
+   * {@code null} element
+   *
+   * @exception UnsatisfiedResolutionException if a {@link BeanSelectionCriteria} could not be satisfied
+   *
+   * @exception AmbiguousResolutionException if a {@link BeanSelectionCriteria} could not be resolved unambiguously
+   */
+  public InjectionPlan(final BeanSet beanSet, final BeanSelectionCriteria... beanSelectionCriteria) {
+    super();
+    this.beanSet = Objects.requireNonNull(beanSet, "beanSet");
+    this.beanSelectionCriteria = beanSelectionCriteria.clone();
+    this.beans = new Bean<?>[this.beanSelectionCriteria.length];
+    for (int i = 0; i < this.beans.length; i++) {
+      final BeanSelectionCriteria bsc = Objects.requireNonNull(this.beanSelectionCriteria[i], "beanSelectionCriteria[" + i + "]");
+      final Bean<?> b = beanSet.bean(bsc);
+      if (b == null) {
+        throw new UnsatisfiedResolutionException(bsc);
+      }
+      this.beans[i] = b;
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link BeanSet} in which this {@link InjectionPlan}'s {@link BeanSelectionCriteria} were resolved.
+   *
+   * @return the {@link BeanSet}; never {@code null}
+   */
+  public final BeanSet beanSet() {
+    return this.beanSet;
+  }
+
+  /**
+   * Returns the number of {@link BeanSelectionCriteria} in this {@link InjectionPlan}.
+   *
+   * @return the number of {@link BeanSelectionCriteria}; always {@code 0} or greater
+   */
+  public final int size() {
+    return this.beans.length;
+  }
+
+  /**
+   * Returns the {@link BeanSelectionCriteria} at the supplied index.
+   *
+   * @param index a valid index
+   *
+   * @return the {@link BeanSelectionCriteria}; never {@code null}
+   *
+   * @exception IndexOutOfBoundsException if {@code index} is invalid
+   */
+  public final BeanSelectionCriteria beanSelectionCriteria(final int index) {
+    return this.beanSelectionCriteria[index];
+  }
+
+  /**
+   * Returns the {@link Bean} that the {@link BeanSelectionCriteria} at the supplied index resolved to.
+   *
+   * @param <R> the type of the {@link Bean}'s contextual instances
+   *
+   * @param index a valid index
+   *
+   * @return the {@link Bean}; never {@code null}
+   *
+   * @exception IndexOutOfBoundsException if {@code index} is invalid
+   */
+  @SuppressWarnings("unchecked")
+  public final <R> Bean<R> bean(final int index) {
+    return (Bean<R>)this.beans[index];
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.getClass().getSimpleName() + List.of(this.beanSelectionCriteria);
+  }
+
+}
@@ -76,6 +76,8 @@ public final class InterceptorBindings {
   public static final List<NamedAttributeMap<?>> interceptorBindings(final Collection<? extends NamedAttributeMap<?>> c) {
     if (c.isEmpty()) {
       return List.of();
+    } else if (c instanceof AttributeList al) {
+      return al.interceptorBindings();
     }
     final ArrayList<NamedAttributeMap<?>> list = new ArrayList<>(c.size());
     for (final NamedAttributeMap<?> nam : c) {
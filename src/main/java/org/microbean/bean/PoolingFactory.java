@@ -0,0 +1,367 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.constant.ConstantDesc;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link Factory} that decorates another {@link Factory} and recycles the instances it creates through a bounded pool
+ * instead of destroying them.
+ *
+ * <p>{@link #create(Creation, ReferenceSelector)} hands out a pooled instance if there is one, and otherwise delegates
+ * to the decorated {@link Factory}. {@link #destroy(Object, AutoCloseable, Creation, ReferenceSelector)} closes the
+ * supplied {@link AutoCloseable} registry as usual (releasing anything that was registered against it), resets the
+ * instance, and returns it to the pool; if the instance cannot be reset, or if the pool is full, the instance is
+ * destroyed by the decorated {@link Factory} instead.</p>
+ *
+ * <p>Pooling is opt-in and suits only dependent-scoped instances that are stateless, or that can be reset, and that do
+ * not retain dependent references acquired during their creation, since those are released when the instance is first
+ * returned. Use {@link #pooled(Bean, int, Predicate)} to pool the instances of a particular {@link Bean}.</p>
+ *
+ * <p>The pool is a fixed array of slots. Each thread starts probing it at a different slot, so that threads
+ * creating and destroying instances concurrently mostly touch different slots; no locks are involved.</p>
+ *
+ * <p>Destruction is idempotent: destroying an instance that is already pooled does nothing, so an instance is never
+ * pooled, and hence never handed out, twice.</p>
+ *
+ * @param <I> the type of the instances this {@link PoolingFactory} creates and destroys
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #statistics()
+ */
+public final class PoolingFactory<I> implements Factory<I> {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final Factory<I> delegate;
+
+  private final Predicate<? super I> reset;
+
+  private final AtomicReferenceArray<Pooled<I>> slots;
+
+  // The identities of the instances that are pooled, or that are being returned to the pool.
+  private final Set<Identity> pooled;
+
+  private final AtomicInteger size;
+
+  private final LongAdder hits;
+
+  private final LongAdder misses;
+
+  private final LongAdder recycled;
+
+  private final LongAdder discarded;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link PoolingFactory}.
+   *
+   * @param delegate the {@link Factory} to decorate; must not be {@code null}
+   *
+   * @param capacity the maximum number of instances to pool; must be greater than {@code 0}
+   *
+   * @param reset a {@link Predicate} that resets an instance being returned to the pool and returns {@code true} if
+   * it may be reused, or {@code false} if it must be destroyed instead; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code delegate} or {@code reset} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code capacity} is less than {@code 1}
+   */
+  public PoolingFactory(final Factory<I> delegate, final int capacity, final Predicate<? super I> reset) {
+    super();
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity: " + capacity);
+    }
+    this.delegate = Objects.requireNonNull(delegate, "delegate");
+    this.reset = Objects.requireNonNull(reset, "reset");
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.pooled = ConcurrentHashMap.newKeySet();
+    this.size = new AtomicInteger();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.recycled = new LongAdder();
+    this.discarded = new LongAdder();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override // Factory<I>
+  public final I create(final Creation<I> c, final ReferenceSelector rs) {
+    final Pooled<I> p = this.poll();
+    if (p != null) {
+      this.hits.increment();
+      return p.instance();
+    }
+    this.misses.increment();
+    return this.delegate.create(c, rs);
+  }
+
+  @Override // Factory<I>
+  public final boolean destroys() {
+    return this.delegate.destroys();
+  }
+
+  @Override // Factory<I>
+  public final void destroy(final I i, final AutoCloseable autoCloseableRegistry, final Creation<I> c, final ReferenceSelector rs) {
+    if (i == null) {
+      return;
+    }
+    final Identity identity = new Identity(i);
+    if (!this.pooled.add(identity)) {
+      // Already pooled, or being returned to the pool by another caller.
+      return;
+    }
+    boolean recycled = false;
+    try {
+      if (autoCloseableRegistry != null) {
+        try {
+          autoCloseableRegistry.close();
+        } catch (final RuntimeException | Error e) {
+          throw e;
+        } catch (final Exception e) {
+          if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+          }
+          throw new DestructionException(e.getMessage(), e);
+        }
+      }
+      recycled = this.reset.test(i) && this.offer(new Pooled<>(i, c, rs));
+    } finally {
+      if (!recycled) {
+        this.pooled.remove(identity);
+      }
+    }
+    if (recycled) {
+      this.recycled.increment();
+    } else {
+      this.discarded.increment();
+      // The registry has already been closed.
+      this.delegate.destroy(i, null, c, rs);
+    }
+  }
+
+  @Override // Factory<I>
+  public final Set<Dependency> dependencies() {
+    return this.delegate.dependencies();
+  }
+
+  /**
+   * Returns an {@linkplain Optional#isEmpty() empty <code>Optional</code>}, since a {@link PoolingFactory} is stateful.
+   *
+   * @return an {@linkplain Optional#isEmpty() empty <code>Optional</code>}; never {@code null}
+   */
+  @Override // Factory<I>
+  public final Optional<? extends ConstantDesc> describeConstable() {
+    return Optional.empty();
+  }
+
+  /**
+   * Removes every pooled instance and destroys it using the decorated {@link Factory}, supplying the {@link Creation}
+   * and {@link ReferenceSelector} with which it was returned to the pool.
+   *
+   * @return the number of instances removed
+   */
+  public final int drain() {
+    int count = 0;
+    for (int slot = 0; slot < this.slots.length(); slot++) {
+      final Pooled<I> p = this.slots.getAndSet(slot, null);
+      if (p != null) {
+        this.size.decrementAndGet();
+        this.pooled.remove(new Identity(p.instance()));
+        ++count;
+        // The registry was closed when the instance was returned to the pool.
+        this.delegate.destroy(p.instance(), null, p.creation(), p.referenceSelector());
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the approximate number of instances currently pooled.
+   *
+   * @return the approximate number of instances currently pooled; always {@code 0} or greater
+   */
+  public final int size() {
+    return Math.max(0, this.size.get());
+  }
+
+  /**
+   * Returns the maximum number of instances this {@link PoolingFactory} will pool.
+   *
+   * @return the capacity; always greater than {@code 0}
+   */
+  public final int capacity() {
+    return this.slots.length();
+  }
+
+  /**
+   * Returns a {@link Statistics} describing this {@link PoolingFactory}'s activity so far.
+   *
+   * @return a {@link Statistics}; never {@code null}
+   */
+  public final Statistics statistics() {
+    return new Statistics(this.hits.sum(), this.misses.sum(), this.recycled.sum(), this.discarded.sum(), this.size());
+  }
+
+  @Override // Object
+  public final String toString() {
+    return this.getClass().getSimpleName() + "[" + this.delegate + "; " + this.statistics() + "]";
+  }
+
+  private final Pooled<I> poll() {
+    final int capacity = this.slots.length();
+    final int start = start(capacity);
+    for (int n = 0; n < capacity; n++) {
+      final int slot = (start + n) % capacity;
+      if (this.slots.getPlain(slot) != null) {
+        final Pooled<I> p = this.slots.getAndSet(slot, null);
+        if (p != null) {
+          this.size.decrementAndGet();
+          this.pooled.remove(new Identity(p.instance()));
+          return p;
+        }
+      }
+    }
+    return null;
+  }
+
+  private final boolean offer(final Pooled<I> p) {
+    final int capacity = this.slots.length();
+    final int start = start(capacity);
+    for (int n = 0; n < capacity; n++) {
+      final int slot = (start + n) % capacity;
+      if (this.slots.getPlain(slot) == null && this.slots.compareAndSet(slot, null, p)) {
+        this.size.incrementAndGet();
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a new {@link Bean} with the same {@link Id} as the supplied {@link Bean} whose {@link Factory} is a {@link
+   * PoolingFactory} decorating the supplied {@link Bean}'s {@link Factory}.
+   *
+   * @param <I> the type of the {@link Bean}'s instances
+   *
+   * @param bean the {@link Bean}; must not be {@code null}
+   *
+   * @param capacity the maximum number of instances to pool; must be greater than {@code 0}
+   *
+   * @param reset a {@link Predicate} that resets an instance being returned to the pool and returns {@code true} if
+   * it may be reused; must not be {@code null}
+   *
+   * @return a new {@link Bean}; never {@code null}
+   *
+   * @exception NullPointerException if {@code bean} or {@code reset} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code capacity} is less than {@code 1}
+   *
+   * @see #PoolingFactory(Factory, int, Predicate)
+   */
+  public static final <I> Bean<I> pooled(final Bean<I> bean, final int capacity, final Predicate<? super I> reset) {
+    return new Bean<>(bean.id(), new PoolingFactory<>(bean.factory(), capacity, reset));
+  }
+
+  // Returns the slot at which the current thread starts probing.
+  private static final int start(final int capacity) {
+    return (int)(((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) % capacity);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  // A pooled instance, together with the Creation and ReferenceSelector with which it was returned to the pool.
+  private static final record Pooled<I>(I instance, Creation<I> creation, ReferenceSelector referenceSelector) {}
+
+  // Compares the wrapped instance by identity.
+  private static final record Identity(Object instance) {
+
+    @Override // Object
+    public final int hashCode() {
+      return System.identityHashCode(this.instance());
+    }
+
+    @Override // Object
+    public final boolean equals(final Object other) {
+      return other instanceof Identity i && i.instance() == this.instance();
+    }
+
+  }
+
+  /**
+   * Statistics describing a {@link PoolingFactory}'s activity.
+   *
+   * @param hits the number of creations satisfied by a pooled instance
+   *
+   * @param misses the number of creations delegated to the decorated {@link Factory}
+   *
+   * @param recycled the number of instances returned to the pool
+   *
+   * @param discarded the number of instances destroyed instead of being returned to the pool
+   *
+   * @param size the approximate number of instances pooled when the statistics were taken
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static final record Statistics(long hits, long misses, long recycled, long discarded, int size) {
+
+    /**
+     * Returns the ratio of {@linkplain #hits() hits} to creations, or {@code 0.0} if there have been no creations.
+     *
+     * @return the hit rate, between {@code 0.0} and {@code 1.0}, inclusive
+     */
+    public final double hitRate() {
+      final long creations = this.hits() + this.misses();
+      return creations == 0L ? 0.0 : (double)this.hits() / creations;
+    }
+
+  }
+
+}
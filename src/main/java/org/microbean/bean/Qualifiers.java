@@ -89,6 +89,8 @@ public final class Qualifiers {
   public static final List<NamedAttributeMap<?>> qualifiers(final Collection<? extends NamedAttributeMap<?>> c) {
     if (c == null || c.isEmpty()) {
       return List.of();
+    } else if (c instanceof AttributeList al) {
+      return al.qualifiers();
     }
     final ArrayList<NamedAttributeMap<?>> list = new ArrayList<>(c.size());
     for (final NamedAttributeMap<?> a : c) {
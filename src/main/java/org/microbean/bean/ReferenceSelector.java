@@ -48,7 +48,67 @@ public interface ReferenceSelector extends AutoCloseable, CreationSupplier {
     return this.reference(beanSelectionCriteria, b.cast(), creation);
   }
 
-  // Convenience
+  /**
+   * Acquires a reference for each {@link BeanSelectionCriteria} in the supplied {@link InjectionPlan}, in order, and
+   * stores it in the supplied array, starting at index {@code 0}, using the {@link Bean}s the {@link InjectionPlan}
+   * already resolved.
+   *
+   * <p>No resolution is performed and no intermediate collections are allocated.</p>
+   *
+   * @param plan an {@link InjectionPlan} built from this {@link ReferenceSelector}'s {@linkplain #beanSet() bean set};
+   * must not be {@code null}
+   *
+   * @param creation a {@link Creation}; may be {@code null}
+   *
+   * @param references the array to fill; must not be {@code null} and must be at least {@link InjectionPlan#size()
+   * plan.size()} elements long
+   *
+   * @return {@code references}
+   *
+   * @exception NullPointerException if {@code plan} or {@code references} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code plan} was not built from this {@link ReferenceSelector}'s {@linkplain
+   * #beanSet() bean set}, or if {@code references} is too short
+   *
+   * @see InjectionPlan
+   */
+  public default Object[] references(final InjectionPlan plan, final Creation<?> creation, final Object[] references) {
+    if (plan.beanSet() != this.beanSet()) {
+      throw new IllegalArgumentException("plan.beanSet() != beanSet(): " + plan);
+    }
+    final int size = plan.size();
+    if (references.length < size) {
+      throw new IllegalArgumentException("references.length < plan.size(): " + references.length + " < " + size);
+    }
+    for (int i = 0; i < size; i++) {
+      references[i] = this.reference(plan.beanSelectionCriteria(i), plan.bean(i), creation == null ? null : creation.cast());
+    }
+    return references;
+  }
+
+  /**
+   * Acquires a reference for each {@link BeanSelectionCriteria} in the supplied {@link InjectionPlan}, in order, and
+   * returns them in a new array.
+   *
+   * @param plan an {@link InjectionPlan} built from this {@link ReferenceSelector}'s {@linkplain #beanSet() bean set};
+   * must not be {@code null}
+   *
+   * @param creation a {@link Creation}; may be {@code null}
+   *
+   * @return a new array of references; never {@code null}
+   *
+   * @exception NullPointerException if {@code plan} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code plan} was not built from this {@link ReferenceSelector}'s {@linkplain
+   * #beanSet() bean set}
+   *
+   * @see #references(InjectionPlan, Creation, Object[])
+   */
+  public default Object[] references(final InjectionPlan plan, final Creation<?> creation) {
+    return this.references(plan, creation, new Object[plan.size()]);
+  }
+
+  // Convenience; see references(InjectionPlan, Creation, Object[])
   @Deprecated
   public default Object[] referencesArray(final Collection<? extends BeanSelectionCriteria> bscs, final Creation<?> c) {
     if (bscs.isEmpty()) {
@@ -63,7 +123,7 @@ public interface ReferenceSelector extends AutoCloseable, CreationSupplier {
     return rv;
   }
 
-  // Convenience
+  // Convenience; see references(InjectionPlan, Creation, Object[])
   @Deprecated
   public default List<?> referencesList(final Collection<? extends BeanSelectionCriteria> bscs, final Creation<?> c) {
     if (bscs.isEmpty()) {
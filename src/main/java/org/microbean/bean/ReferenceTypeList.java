@@ -21,23 +21,33 @@ import java.lang.constant.MethodHandleDesc;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import java.util.function.Predicate;
 
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.QualifiedNameable;
+import javax.lang.model.element.TypeElement;
+
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
 
 import org.microbean.constant.Constables;
 
 import org.microbean.lang.TypeAndElementSource;
 import org.microbean.lang.Equality;
 import org.microbean.lang.Lang;
-import org.microbean.lang.NameTypeMirrorComparator;
-import org.microbean.lang.SpecializationDepthTypeMirrorComparator;
 
 import org.microbean.lang.type.DelegatingTypeMirror;
 
@@ -51,6 +61,14 @@ class ReferenceTypeList implements Constable {
 
   static final ClassDesc CD_Equality = ClassDesc.of(Equality.class.getName());
 
+  private static final int TYPEVAR_RANK = 0;
+
+  private static final int CLASS_RANK = 1;
+
+  private static final int ARRAY_RANK = 2;
+
+  private static final int INTERFACE_RANK = 3;
+
   final Equality equality;
 
   final int classesIndex;
@@ -96,53 +114,55 @@ class ReferenceTypeList implements Constable {
     } else {
       typeFilter =
         typeFilter == null ? ReferenceTypeList::validateType : ((Predicate<TypeMirror>)ReferenceTypeList::validateType).and(typeFilter);
-      final List<DelegatingTypeMirror> newTypes = new ArrayList<>(types.size());
+      // DelegatingTypeMirrors hash and compare using this.equality, so a HashSet suffices to deduplicate them.
+      final Set<DelegatingTypeMirror> seen = HashSet.newHashSet(types.size());
+      // Specialization depths of type declarations, shared across the types being sorted.
+      final Map<Element, Integer> depths = new HashMap<>();
+      final List<SortKey> sortKeys = new ArrayList<>(types.size());
       for (final TypeMirror t : types) {
         final DelegatingTypeMirror dt = DelegatingTypeMirror.of(t, typeAndElementSource, this.equality);
-        if (!this.seen(newTypes, dt) && typeFilter.test(dt)) {
-          newTypes.add(dt);
+        if (seen.add(dt) && typeFilter.test(dt)) {
+          sortKeys.add(new SortKey(dt, rank(dt), depth(dt, depths), name(dt)));
         }
       }
-      if (newTypes.isEmpty()) {
+      if (sortKeys.isEmpty()) {
         this.types = List.of();
         this.classesIndex = -1;
         this.arraysIndex = -1;
         this.interfacesIndex = -1;
       } else {
-        Collections.sort(newTypes,
-                         // Sort first by precedence:
-                         //  type variables precede non-interfaces
-                         //  non-interfaces precede arrays
-                         //  arrays precede interfaces
-                         TypeKindComparator.INSTANCE
-                         // Sort next by specialization depth
-                         .thenComparing(new SpecializationDepthTypeMirrorComparator(typeAndElementSource, this.equality))
-                         // Sort last by name
-                         .thenComparing(NameTypeMirrorComparator.INSTANCE));
+        // Sort on keys computed once per type (see SortKey):
+        //  type variables precede non-interfaces
+        //  non-interfaces precede arrays
+        //  arrays precede interfaces
+        //  within each of these, more specialized types precede less specialized ones
+        //  finally, types are sorted by name
+        Collections.sort(sortKeys);
+        final List<DelegatingTypeMirror> newTypes = new ArrayList<>(sortKeys.size());
         int classesIndex = -1;
         int arraysIndex = -1;
         int interfacesIndex = -1;
-        LOOP:
-        for (int i = 0; i < newTypes.size(); i++) {
-          final TypeMirror newType = newTypes.get(i);
-          switch (newType.getKind()) {
-          case ARRAY:
+        for (int i = 0; i < sortKeys.size(); i++) {
+          final SortKey k = sortKeys.get(i);
+          newTypes.add(k.type());
+          switch (k.rank()) {
+          case CLASS_RANK:
+            if (classesIndex < 0) {
+              classesIndex = i;
+            }
+            break;
+          case ARRAY_RANK:
             if (arraysIndex < 0) {
               arraysIndex = i;
             }
             break;
-          case DECLARED:
-            if (((DeclaredType)newType).asElement().getKind().isInterface()) {
+          case INTERFACE_RANK:
+            if (interfacesIndex < 0) {
               interfacesIndex = i;
-              break LOOP;
-            } else if (classesIndex < 0) {
-              classesIndex = i;
             }
             break;
-          case TYPEVAR:
-            break;
           default:
-            throw new AssertionError("non-reference type: " + newType);
+            break;
           }
         }
         this.types = Collections.unmodifiableList(newTypes);
@@ -247,15 +267,6 @@ class ReferenceTypeList implements Constable {
     return String.valueOf(this.types());
   }
 
-  private final boolean seen(final Iterable<? extends TypeMirror> seen, final TypeMirror t) {
-    for (final TypeMirror s : seen) {
-      if (s == t || this.equality.equals(s, t)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
 
   /*
    * Static methods.
@@ -284,6 +295,69 @@ class ReferenceTypeList implements Constable {
                                  visitors.typeAndElementSource());
   }
 
+  // Returns the precedence of t: type variables precede non-interfaces, which precede arrays, which precede interfaces.
+  private static final int rank(final TypeMirror t) {
+    return switch (t.getKind()) {
+    case TYPEVAR -> TYPEVAR_RANK;
+    case DECLARED -> ((DeclaredType)t).asElement().getKind().isInterface() ? INTERFACE_RANK : CLASS_RANK;
+    case ARRAY -> ARRAY_RANK;
+    default -> throw new AssertionError("non-reference type: " + t);
+    };
+  }
+
+  // Returns the specialization depth of t: the length of the longest path from t through its supertypes to
+  // java.lang.Object, whose depth is 0. Type arguments do not affect depth, so the depths of type declarations are
+  // memoized in depths.
+  private static final int depth(final TypeMirror t, final Map<Element, Integer> depths) {
+    return switch (t.getKind()) {
+    // The direct supertypes of S[] are the arrays of the direct supertypes of S; those of Object[] and of primitive
+    // arrays are Object, Cloneable and Serializable.
+    case ARRAY -> {
+      final TypeMirror ct = ((ArrayType)t).getComponentType();
+      yield ct.getKind().isPrimitive() ? 2 : depth(ct, depths) + 2;
+    }
+    case DECLARED -> depth((TypeElement)((DeclaredType)t).asElement(), depths);
+    case INTERSECTION -> {
+      int max = 0;
+      for (final TypeMirror bound : ((IntersectionType)t).getBounds()) {
+        max = Math.max(max, depth(bound, depths));
+      }
+      yield max;
+    }
+    case TYPEVAR -> 1 + depth(((TypeVariable)t).getUpperBound(), depths);
+    default -> 0;
+    };
+  }
+
+  private static final int depth(final TypeElement e, final Map<Element, Integer> depths) {
+    final Integer depth = depths.get(e);
+    if (depth != null) {
+      return depth;
+    }
+    if (e.getKind() == ElementKind.CLASS && e.getQualifiedName().contentEquals("java.lang.Object")) {
+      depths.put(e, 0);
+      return 0;
+    }
+    final TypeMirror superclass = e.getSuperclass();
+    // Interfaces have java.lang.Object, whose depth is 0, as an implicit supertype.
+    int max = superclass.getKind() == TypeKind.DECLARED ? depth(superclass, depths) : 0;
+    for (final TypeMirror i : e.getInterfaces()) {
+      max = Math.max(max, depth(i, depths));
+    }
+    depths.put(e, max + 1);
+    return max + 1;
+  }
+
+  // Returns a name for t suitable for ordering types that are otherwise equivalent.
+  private static final String name(final TypeMirror t) {
+    return switch (t.getKind()) {
+    case ARRAY -> name(((ArrayType)t).getComponentType()) + "[]";
+    case DECLARED -> ((QualifiedNameable)((DeclaredType)t).asElement()).getQualifiedName().toString();
+    case TYPEVAR -> ((TypeVariable)t).asElement().getSimpleName().toString();
+    default -> t.toString();
+    };
+  }
+
   // Every so often and only under parallel testing:
   //
   // java.lang.NullPointerException: Cannot invoke "javax.lang.model.type.TypeMirror.getKind()" because "t" is null
@@ -304,51 +378,41 @@ class ReferenceTypeList implements Constable {
    */
 
 
-  private static final class TypeKindComparator implements Comparator<TypeMirror> {
+  // A type together with its sort keys, each computed once: its precedence (see #rank(TypeMirror)), its specialization
+  // depth (see #depth(TypeMirror, Map)) and its name. The first two are packed into a single long.
+  private static final class SortKey implements Comparable<SortKey> {
+
+    private final DelegatingTypeMirror type;
+
+    private final int rank;
 
-    private static final TypeKindComparator INSTANCE = new TypeKindComparator();
+    // Ascending precedence, then descending specialization depth.
+    private final long key;
 
-    private TypeKindComparator() {
+    private final String name;
+
+    private SortKey(final DelegatingTypeMirror type, final int rank, final int depth, final String name) {
       super();
+      this.type = type;
+      this.rank = rank;
+      this.key = ((long)rank << 32) | (Integer.MAX_VALUE - depth);
+      this.name = name;
     }
 
-    @Override // Comparator<TypeMirror>
-    public final int compare(final TypeMirror t, final TypeMirror s) {
-      return t != null && t == s ? 0 : switch (t.getKind()) {
-        case ARRAY -> switch (s.getKind()) {
-          case ARRAY -> 0;
-          // arrays precede interfaces; non-interfaces precede arrays:
-          case DECLARED -> ((DeclaredType)s).asElement().getKind().isInterface() ? -1 : 1;
-          // type variables precede arrays
-          case TYPEVAR -> 1;
-          default -> throw new IllegalArgumentException("s: " + s);
-        };
-
-        case DECLARED -> switch (s.getKind()) {
-          // non-interfaces precede arrays; arrays precede interfaces:
-          case ARRAY -> ((DeclaredType)t).asElement().getKind().isInterface() ? 1 : -1;
-          // non-interfaces precede interfaces:
-          case DECLARED -> ((DeclaredType)t).asElement().getKind().isInterface() ?
-            ((DeclaredType)s).asElement().getKind().isInterface() ? 0 : 1 :
-            ((DeclaredType)s).asElement().getKind().isInterface() ? -1 : 0;
-          // type variables precede non-interfaces and interfaces:
-          case TYPEVAR -> 1;
-          default -> throw new IllegalArgumentException("s: " + s);
-        };
-
-        case TYPEVAR -> switch (s.getKind()) {
-          // type variables precede non-interfaces, arrays and interfaces:
-          case ARRAY, DECLARED -> -1;
-          case TYPEVAR -> 0;
-          default -> throw new IllegalArgumentException("s: " + s);
-        };
-
-        default -> throw new IllegalArgumentException("t: " + t);
-      };
+    private final DelegatingTypeMirror type() {
+      return this.type;
     }
 
-  }
+    private final int rank() {
+      return this.rank;
+    }
 
+    @Override // Comparable<SortKey>
+    public final int compareTo(final SortKey other) {
+      final int c = Long.compare(this.key, other.key);
+      return c == 0 ? this.name.compareTo(other.name) : c;
+    }
 
+  }
 
 }
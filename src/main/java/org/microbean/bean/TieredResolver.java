@@ -0,0 +1,342 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.constant.Constable;
+import java.lang.constant.DynamicConstantDesc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SequencedCollection;
+
+import java.util.function.BiFunction;
+
+import static java.lang.constant.ConstantDescs.BSM_GET_STATIC_FINAL;
+
+import static org.microbean.bean.ConstantDescs.CD_TieredResolver;
+import static org.microbean.bean.Ranked.DEFAULT_RANK;
+
+/**
+ * An {@link Alternate.Resolver} that examines candidates from the highest rank down and stops as soon as the
+ * highest-ranked tier of {@linkplain Alternate#alternate() alternates} has been decided.
+ *
+ * <p>Candidates are expected to be supplied in a {@link SequencedCollection} in ascending order of {@linkplain
+ * Ranked#rank() rank}, as {@link DefaultBeanSet} supplies them, in which case they are not copied. Candidates supplied
+ * in any other form or order are sorted first. {@link #explainSorted(SequencedCollection)} skips even the check.</p>
+ *
+ * <p>Resolution follows these rules, which do not depend on the order in which candidates are supplied:</p>
+ *
+ * <ul>
+ *
+ * <li>An alternate is preferred to any candidate that is not an alternate, regardless of rank.</li>
+ *
+ * <li>Of several alternates, the one with the highest rank wins; alternates whose rank is less than {@link
+ * Ranked#DEFAULT_RANK} are disregarded.</li>
+ *
+ * <li>Two or more alternates sharing the highest rank are ambiguous.</li>
+ *
+ * <li>In the absence of alternates, two or more candidates that are not alternates are ambiguous, regardless of their
+ * ranks.</li>
+ *
+ * </ul>
+ *
+ * <p>These rules differ from those of {@link Alternate.Resolver#resolve(BeanSelectionCriteria, Collection,
+ * BiFunction)}, which walks candidates in the order supplied and fails as soon as any two of them tie, even if a
+ * candidate that would be preferred to both comes later. Supplied in ascending order of rank, two candidates that are
+ * not alternates followed by an alternate are ambiguous under those rules, but the alternate wins under these. So too
+ * two alternates of rank {@code 5} followed by one of rank {@code 10}: ambiguous under those rules, while the alternate
+ * of rank {@code 10} wins under these. {@link DefaultBeanSet}'s default resolver follows these rules.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #explain(Collection)
+ */
+public final class TieredResolver implements Alternate.Resolver, Constable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The sole instance of this class.
+   */
+  public static final TieredResolver INSTANCE = new TieredResolver();
+
+
+  /*
+   * Constructors.
+   */
+
+
+  private TieredResolver() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override // Alternate.Resolver
+  public final <T extends Alternate> T resolve(final BeanSelectionCriteria beanSelectionCriteria,
+                                               final Collection<? extends T> alternates,
+                                               final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> failureHandler) {
+    return winner(beanSelectionCriteria, this.explain(alternates), failureHandler);
+  }
+
+  /**
+   * Resolves the supplied candidates, which must already be in ascending order of {@linkplain Ranked#rank() rank},
+   * without verifying that order, and returns the winner.
+   *
+   * @param <T> the type of the candidates
+   *
+   * @param beanSelectionCriteria the {@link BeanSelectionCriteria} for which resolution is being performed; may be
+   * {@code null}
+   *
+   * @param alternates the candidates in ascending order of rank; may be {@code null}
+   *
+   * @param failureHandler invoked with the contenders if resolution is ambiguous; may be {@code null} in which case
+   * {@link Alternate.Resolver#fail(BeanSelectionCriteria, Collection)} is used instead
+   *
+   * @return the winner, or the result of the failure handler, or {@code null} if there are no candidates
+   *
+   * @see #explainSorted(SequencedCollection)
+   */
+  public final <T extends Alternate> T resolveSorted(final BeanSelectionCriteria beanSelectionCriteria,
+                                                     final SequencedCollection<? extends T> alternates,
+                                                     final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> failureHandler) {
+    return winner(beanSelectionCriteria, this.explainSorted(alternates), failureHandler);
+  }
+
+  /**
+   * Resolves the supplied candidates and returns a {@link Resolution} describing the outcome and the reason for it.
+   *
+   * @param <T> the type of the candidates
+   *
+   * @param candidates the candidates, ideally in a {@link SequencedCollection} in ascending order of {@linkplain
+   * Ranked#rank() rank}; may be {@code null}
+   *
+   * @return a {@link Resolution}; never {@code null}
+   */
+  public final <T extends Alternate> Resolution<T> explain(final Collection<? extends T> candidates) {
+    if (candidates == null || candidates.isEmpty()) {
+      return new Resolution<>(null, Reason.NO_CANDIDATES, List.of(), 0);
+    } else if (candidates.size() == 1) {
+      final T sole = candidates.iterator().next();
+      return new Resolution<>(sole, Reason.SOLE_CANDIDATE, List.of(sole), 1);
+    }
+    if (candidates instanceof SequencedCollection<? extends T> sc && ascending(sc)) {
+      return explainDescending(sc.reversed());
+    }
+    final List<T> sorted = new ArrayList<>(candidates);
+    sorted.sort(Comparator.comparingInt(Ranked::rank));
+    return explainDescending(sorted.reversed());
+  }
+
+  /**
+   * Resolves the supplied candidates, which must already be in ascending order of {@linkplain Ranked#rank() rank},
+   * without verifying that order, and returns a {@link Resolution} describing the outcome and the reason for it.
+   *
+   * <p>Only the candidates in the highest-ranked tier of eligible {@linkplain Alternate#alternate() alternates} (and
+   * any candidates ranked above it) are examined.</p>
+   *
+   * @param <T> the type of the candidates
+   *
+   * @param candidates the candidates in ascending order of rank; may be {@code null}
+   *
+   * @return a {@link Resolution}; never {@code null}
+   *
+   * @see #explain(Collection)
+   */
+  public final <T extends Alternate> Resolution<T> explainSorted(final SequencedCollection<? extends T> candidates) {
+    if (candidates == null || candidates.isEmpty()) {
+      return new Resolution<>(null, Reason.NO_CANDIDATES, List.of(), 0);
+    } else if (candidates.size() == 1) {
+      final T sole = candidates.getFirst();
+      return new Resolution<>(sole, Reason.SOLE_CANDIDATE, List.of(sole), 1);
+    }
+    return explainDescending(candidates.reversed());
+  }
+
+  @Override // Constable
+  public final Optional<DynamicConstantDesc<TieredResolver>> describeConstable() {
+    return Optional.of(DynamicConstantDesc.ofNamed(BSM_GET_STATIC_FINAL, "INSTANCE", CD_TieredResolver));
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  private static final <T extends Alternate> T winner(final BeanSelectionCriteria beanSelectionCriteria,
+                                                      final Resolution<T> r,
+                                                      final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> failureHandler) {
+    if (r.reason() == Reason.AMBIGUOUS) {
+      return
+        failureHandler == null ? Alternate.Resolver.fail(beanSelectionCriteria, r.contenders()) : failureHandler.apply(beanSelectionCriteria, r.contenders());
+    }
+    return r.winner();
+  }
+
+  private static final boolean ascending(final Iterable<? extends Ranked> candidates) {
+    int previousRank = Integer.MIN_VALUE;
+    for (final Ranked c : candidates) {
+      final int rank = c.rank();
+      if (rank < previousRank) {
+        return false;
+      }
+      previousRank = rank;
+    }
+    return true;
+  }
+
+  private static final <T extends Alternate> Resolution<T> explainDescending(final Iterable<? extends T> candidates) {
+    int examined = 0;
+    T alternate = null;
+    List<T> tiedAlternates = null;
+    T nonAlternate = null;
+    List<T> nonAlternates = null;
+    for (final T c : candidates) {
+      final int rank = c.rank();
+      if (alternate != null && rank < alternate.rank()) {
+        // The highest-ranked tier of alternates is complete; nothing below it can matter.
+        break;
+      }
+      ++examined;
+      if (c.alternate()) {
+        if (rank < DEFAULT_RANK) {
+          // Disregarded.
+        } else if (alternate == null) {
+          alternate = c;
+        } else {
+          if (tiedAlternates == null) {
+            tiedAlternates = new ArrayList<>(4);
+            tiedAlternates.add(alternate);
+          }
+          tiedAlternates.add(c);
+        }
+      } else if (alternate == null) {
+        if (nonAlternate == null) {
+          nonAlternate = c;
+        } else {
+          if (nonAlternates == null) {
+            nonAlternates = new ArrayList<>(4);
+            nonAlternates.add(nonAlternate);
+          }
+          nonAlternates.add(c);
+        }
+      }
+    }
+    if (tiedAlternates != null) {
+      return new Resolution<>(null, Reason.AMBIGUOUS, tiedAlternates, examined);
+    } else if (alternate != null) {
+      return new Resolution<>(alternate, Reason.HIGHEST_RANKED_ALTERNATE, List.of(alternate), examined);
+    } else if (nonAlternates != null) {
+      return new Resolution<>(null, Reason.AMBIGUOUS, nonAlternates, examined);
+    } else if (nonAlternate != null) {
+      return new Resolution<>(nonAlternate, Reason.SOLE_NON_ALTERNATE, List.of(nonAlternate), examined);
+    }
+    // Only disregarded alternates.
+    return new Resolution<>(null, Reason.NO_CANDIDATES, List.of(), examined);
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * Why a {@link Resolution} came out the way it did.
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static enum Reason {
+
+    /**
+     * There were no candidates, or every candidate was an alternate whose rank was less than {@link
+     * Ranked#DEFAULT_RANK}.
+     */
+    NO_CANDIDATES,
+
+    /**
+     * There was exactly one candidate.
+     */
+    SOLE_CANDIDATE,
+
+    /**
+     * The winner was the only alternate with the highest rank.
+     */
+    HIGHEST_RANKED_ALTERNATE,
+
+    /**
+     * There were no eligible alternates, and the winner was the only candidate that was not an alternate.
+     */
+    SOLE_NON_ALTERNATE,
+
+    /**
+     * Two or more alternates shared the highest rank, or, in the absence of alternates, there were two or more
+     * candidates that were not alternates.
+     */
+    AMBIGUOUS;
+
+  }
+
+  /**
+   * The outcome of {@linkplain TieredResolver#explain(Collection) resolving} a collection of candidates.
+   *
+   * @param <T> the type of the candidates
+   *
+   * @param winner the winning candidate; {@code null} if there was none
+   *
+   * @param reason the {@link Reason} for the outcome; must not be {@code null}
+   *
+   * @param contenders the candidates that decided the outcome: the winner, if there was one, or the ambiguous
+   * candidates; must not be {@code null}
+   *
+   * @param examined the number of candidates examined
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  public static final record Resolution<T extends Alternate>(T winner, Reason reason, List<T> contenders, int examined) {
+
+    /**
+     * Creates a new {@link Resolution}.
+     *
+     * @param winner the winning candidate; {@code null} if there was none
+     *
+     * @param reason the {@link Reason} for the outcome; must not be {@code null}
+     *
+     * @param contenders the candidates that decided the outcome; must not be {@code null}
+     *
+     * @param examined the number of candidates examined
+     *
+     * @exception NullPointerException if {@code reason} or {@code contenders} is {@code null}
+     */
+    public Resolution {
+      Objects.requireNonNull(reason, "reason");
+      contenders = List.copyOf(contenders);
+    }
+
+  }
+
+}
@@ -0,0 +1,396 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+/**
+ * Eagerly creates the {@linkplain org.microbean.scope.Scope#SINGLETON_ID singleton-scoped} {@link Bean}s in a {@link
+ * DependencyGraph}, in parallel, in dependency order.
+ *
+ * <p>A {@link Bean}'s {@link Factory#create(Creation, ReferenceSelector)} method is submitted to the {@link Executor}
+ * as soon as all of the {@link Bean}s it depends on have been created, so independent subgraphs are created
+ * concurrently. {@link Bean}s that are not singleton-scoped are not created but are still ordered, so a singleton that
+ * depends on them indirectly still waits for the singletons they depend on. {@link Bean}s whose {@link Factory} already
+ * has a {@linkplain Factory#singleton() singleton} are not created again.</p>
+ *
+ * <p>Each instance created, together with the {@link Creation} it was created with, is handed to a {@link Sink},
+ * typically one that places it in the singleton scope from which it will later be served. If creation fails, the
+ * {@link Creation} is {@linkplain Creation#close() closed}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+ *
+ * @see #run(ReferenceSelector, Sink)
+ */
+public final class WarmUp {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  private final DependencyGraph graph;
+
+  private final Executor executor;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link WarmUp}.
+   *
+   * @param graph a {@link DependencyGraph}; must not be {@code null}; must not be {@linkplain DependencyGraph#cyclic()
+   * cyclic}
+   *
+   * @param executor the {@link Executor} on which {@link Factory#create(Creation, ReferenceSelector)} invocations will
+   * be performed, such as one returned by {@link
+   * java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()}; must not be {@code null}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @exception IllegalStateException if {@code graph} is {@linkplain DependencyGraph#cyclic() cyclic}
+   */
+  public WarmUp(final DependencyGraph graph, final Executor executor) {
+    super();
+    if (graph.cyclic()) {
+      throw new IllegalStateException("cycles: " + graph.cycles());
+    }
+    this.graph = graph;
+    this.executor = Objects.requireNonNull(executor, "executor");
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Creates every singleton-scoped {@link Bean} in this {@link WarmUp}'s {@link DependencyGraph}, handing each
+   * instance to the supplied {@link Sink}, blocking until all creations have completed or failed, and returns a {@link
+   * Report} describing the outcome.
+   *
+   * <p>A {@link Bean} whose creation fails does not prevent the creation of {@link Bean}s that do not depend on it.
+   * {@link Bean}s that depend on it, directly or indirectly, are {@linkplain Report#skipped() skipped}.</p>
+   *
+   * <p>A {@link Sink} that throws is treated as a failed creation: the instance is {@linkplain Factory#destroy(Object,
+   * AutoCloseable, Creation, ReferenceSelector) destroyed} and its {@link Creation} closed.</p>
+   *
+   * @param referenceSelector the {@link ReferenceSelector} supplying {@link Creation}s and passed to each {@link
+   * Factory}; must not be {@code null}
+   *
+   * @param sink the {@link Sink} that will receive each created instance; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link Report}
+   *
+   * @exception NullPointerException if either argument is {@code null}
+   *
+   * @exception InterruptedException if the calling thread was interrupted while waiting
+   */
+  public final Report run(final ReferenceSelector referenceSelector, final Sink sink) throws InterruptedException {
+    Objects.requireNonNull(referenceSelector, "referenceSelector");
+    Objects.requireNonNull(sink, "sink");
+    return new Run(referenceSelector, sink).run();
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A receiver of the instances created by {@linkplain WarmUp#run(ReferenceSelector, Sink) a warm-up}.
+   *
+   * @author <a href="https://about.me/lairdnelson/" target="_top">Laird Nelson</a>
+   */
+  @FunctionalInterface
+  public static interface Sink {
+
+    /**
+     * Accepts a newly created singleton.
+     *
+     * <p>The receiver takes ownership of {@code creation}, which must eventually be {@linkplain Creation#close()
+     * closed}, normally by {@linkplain Factory#destroy(Object, AutoCloseable, Creation, ReferenceSelector) destroying}
+     * {@code instance} when its scope ends.</p>
+     *
+     * <p>This method may be invoked concurrently by multiple threads.</p>
+     *
+     * @param bean the {@link Bean} whose {@link Factory} created {@code instance}; never {@code null}
+     *
+     * @param instance the instance; may be {@code null} if the {@link Factory} returned {@code null}
+     *
+     * @param creation the {@link Creation} with which {@code instance} was created; never {@code null}
+     */
+    public void accept(final Bean<?> bean, final Object instance, final Creation<?> creation);
+
+  }
+
+  /**
+   * The outcome of {@linkplain WarmUp#run(ReferenceSelector, Sink) a warm-up}.
+   *
+   * @param creationTimes an immutable {@link Map} of the time taken to create each {@link Bean} that was created, in
+   * order of completion; must not be {@code null}
+   *
+   * @param criticalPath an immutable {@link List} of the {@link Bean}s on the critical path, i.e. the chain of
+   * dependent {@link Bean}s whose creation times have the greatest sum, dependencies first; must not be {@code null}
+   *
+   * @param criticalPathLength the sum of the creation times of the {@link Bean}s on the critical path, which is the
+   * least time the warm-up could have taken given unlimited parallelism; must not be {@code null}
+   *
+   * @param elapsed the time the warm-up actually took; must not be {@code null}
+   *
+   * @param failures an immutable {@link Map} of the {@link Throwable}s thrown while creating {@link Bean}s; must not be
+   * {@code null}
+   *
+   * @param skipped an immutable {@link List} of the singleton-scoped {@link Bean}s that were not created because one
+   * of their dependencies could not be created; must not be {@code null}
+   */
+  public static final record Report(Map<Bean<?>, Duration> creationTimes,
+                                    List<Bean<?>> criticalPath,
+                                    Duration criticalPathLength,
+                                    Duration elapsed,
+                                    Map<Bean<?>, Throwable> failures,
+                                    List<Bean<?>> skipped) {
+
+    /**
+     * Creates a new {@link Report}.
+     *
+     * @exception NullPointerException if any argument is {@code null}
+     */
+    public Report {
+      creationTimes = Collections.unmodifiableMap(new LinkedHashMap<>(creationTimes));
+      criticalPath = List.copyOf(criticalPath);
+      Objects.requireNonNull(criticalPathLength, "criticalPathLength");
+      Objects.requireNonNull(elapsed, "elapsed");
+      failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+      skipped = List.copyOf(skipped);
+    }
+
+    /**
+     * Returns {@code true} if and only if every singleton-scoped {@link Bean} was created.
+     *
+     * @return {@code true} if and only if every singleton-scoped {@link Bean} was created
+     */
+    public final boolean successful() {
+      return this.failures().isEmpty() && this.skipped().isEmpty();
+    }
+
+  }
+
+  // The state of one invocation of WarmUp#run(ReferenceSelector, Sink).
+  private final class Run {
+
+    private static final int PENDING = 0;
+
+    private static final int CREATED = 1;
+
+    private static final int NOT_CREATED = 2; // not singleton-scoped, or already created
+
+    private static final int FAILED = 3;
+
+    private static final int SKIPPED = 4;
+
+    private final ReferenceSelector referenceSelector;
+
+    private final Sink sink;
+
+    // The number of each Bean's dependencies that have not yet finished.
+    private final AtomicIntegerArray remaining;
+
+    // Whether any of each Bean's dependencies failed or was skipped.
+    private final AtomicIntegerArray blocked;
+
+    private final AtomicIntegerArray states;
+
+    private final long[] durations;
+
+    // The order in which Beans finished.
+    private final AtomicIntegerArray completionOrder;
+
+    private final AtomicInteger completionCount;
+
+    private final AtomicReferenceArray<Throwable> failures;
+
+    private final CountDownLatch latch;
+
+    private Run(final ReferenceSelector referenceSelector, final Sink sink) {
+      super();
+      final int size = WarmUp.this.graph.size();
+      this.referenceSelector = referenceSelector;
+      this.sink = sink;
+      this.remaining = new AtomicIntegerArray(size);
+      for (int ordinal = 0; ordinal < size; ordinal++) {
+        this.remaining.set(ordinal, WarmUp.this.graph.dependencyCount(ordinal));
+      }
+      this.blocked = new AtomicIntegerArray(size);
+      this.states = new AtomicIntegerArray(size);
+      this.durations = new long[size];
+      this.completionOrder = new AtomicIntegerArray(size);
+      this.completionCount = new AtomicInteger();
+      this.failures = new AtomicReferenceArray<>(size);
+      this.latch = new CountDownLatch(size);
+    }
+
+    private final Report run() throws InterruptedException {
+      final long start = System.nanoTime();
+      final int size = WarmUp.this.graph.size();
+      for (int ordinal = 0; ordinal < size; ordinal++) {
+        if (WarmUp.this.graph.dependencyCount(ordinal) == 0) {
+          this.submit(ordinal);
+        }
+      }
+      this.latch.await();
+      return this.report(System.nanoTime() - start);
+    }
+
+    private final void submit(final int ordinal) {
+      try {
+        WarmUp.this.executor.execute(() -> this.create(ordinal));
+      } catch (final RejectedExecutionException e) {
+        this.failures.set(ordinal, e);
+        this.finish(ordinal, FAILED);
+      }
+    }
+
+    private final void create(final int ordinal) {
+      final Bean<Object> bean = WarmUp.this.graph.bean(ordinal).cast();
+      if (this.blocked.get(ordinal) != 0) {
+        this.finish(ordinal, SINGLETON_ID.equals(bean.id().governingScopeId()) ? SKIPPED : NOT_CREATED);
+        return;
+      }
+      final Factory<Object> factory = bean.factory();
+      if (!SINGLETON_ID.equals(bean.id().governingScopeId()) || factory.singleton() != null) {
+        this.finish(ordinal, NOT_CREATED);
+        return;
+      }
+      final long start = System.nanoTime();
+      int state;
+      Creation<Object> c = null;
+      Object i = null;
+      boolean created = false;
+      try {
+        c = this.referenceSelector.creation();
+        i = factory.create(c, this.referenceSelector);
+        created = true;
+        this.sink.accept(bean, i, c);
+        state = CREATED;
+      } catch (final RuntimeException | Error e) {
+        if (c != null) {
+          try {
+            if (created && factory.destroys()) {
+              factory.destroy(i, c, c, this.referenceSelector);
+            } else {
+              c.close();
+            }
+          } catch (final RuntimeException | Error e2) {
+            e.addSuppressed(e2);
+          }
+        }
+        this.failures.set(ordinal, e);
+        state = FAILED;
+      }
+      this.durations[ordinal] = System.nanoTime() - start; // published by finish()
+      this.finish(ordinal, state);
+    }
+
+    private final void finish(final int ordinal, final int state) {
+      this.states.set(ordinal, state);
+      this.completionOrder.set(this.completionCount.getAndIncrement(), ordinal);
+      final boolean block = state == FAILED || state == SKIPPED || this.blocked.get(ordinal) != 0;
+      for (final int dependent : WarmUp.this.graph.dependents(ordinal)) {
+        if (block) {
+          this.blocked.set(dependent, 1);
+        }
+        if (this.remaining.decrementAndGet(dependent) == 0) {
+          this.submit(dependent);
+        }
+      }
+      this.latch.countDown();
+    }
+
+    // Called only after the latch has been released.
+    private final Report report(final long elapsed) {
+      final DependencyGraph g = WarmUp.this.graph;
+      final int size = g.size();
+      final Map<Bean<?>, Duration> creationTimes = new LinkedHashMap<>();
+      final Map<Bean<?>, Throwable> failures = new LinkedHashMap<>();
+      final List<Bean<?>> skipped = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        final int ordinal = this.completionOrder.get(i);
+        switch (this.states.get(ordinal)) {
+        case CREATED -> creationTimes.put(g.bean(ordinal), Duration.ofNanos(this.durations[ordinal]));
+        case FAILED -> failures.put(g.bean(ordinal), this.failures.get(ordinal));
+        case SKIPPED -> skipped.add(g.bean(ordinal));
+        default -> {}
+        }
+      }
+
+      // The critical path is the longest path through the graph, weighting each Bean by its creation time.
+      final long[] pathLengths = new long[size];
+      final int[] predecessors = new int[size];
+      int last = -1;
+      for (final int ordinal : g.topologicalOrder()) {
+        int predecessor = -1;
+        long longest = 0L;
+        for (final int dependency : g.dependencies(ordinal)) {
+          if (predecessor < 0 || pathLengths[dependency] > longest) {
+            predecessor = dependency;
+            longest = pathLengths[dependency];
+          }
+        }
+        predecessors[ordinal] = predecessor;
+        pathLengths[ordinal] = longest + this.durations[ordinal];
+        if (last < 0 || pathLengths[ordinal] > pathLengths[last]) {
+          last = ordinal;
+        }
+      }
+      final List<Bean<?>> criticalPath = new ArrayList<>();
+      for (int ordinal = last; ordinal >= 0; ordinal = predecessors[ordinal]) {
+        if (this.states.get(ordinal) == CREATED) {
+          criticalPath.add(g.bean(ordinal));
+        }
+      }
+      return new Report(creationTimes,
+                        criticalPath.reversed(),
+                        Duration.ofNanos(last < 0 ? 0L : pathLengths[last]),
+                        Duration.ofNanos(elapsed),
+                        failures,
+                        skipped);
+    }
+
+  }
+
+}
@@ -0,0 +1,69 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+// Fixtures shared by tests that select, resolve and acquire references to simple singleton beans.
+final class Fixtures {
+
+  static final TypeAndElementSource tes = Lang.typeAndElementSource();
+
+  static final Assignability assignability = new Assignability(tes);
+
+  private Fixtures() {
+    super();
+  }
+
+  // Selects beans of the supplied type with default qualifiers.
+  static final BeanSelectionCriteria bsc(final Class<?> type) {
+    return new BeanSelectionCriteria(assignability, tes.declaredType(type), defaultQualifiers(), true);
+  }
+
+  // A singleton bean whose only type is the supplied one.
+  static final Bean<?> bean(final Class<?> type, final Object instance) {
+    return new Bean<>(new Id(List.of(tes.declaredType(type)), anyAndDefaultQualifiers(), SINGLETON_ID), new Singleton<>(instance));
+  }
+
+  // Creates references using the beans' factories directly, adding each non-null Creation it is supplied to creations,
+  // if creations is not null.
+  static final ReferenceSelector referenceSelector(final BeanSet beanSet, final List<? super Creation<?>> creations) {
+    return new ReferenceSelector() {
+      @Override
+      public final BeanSet beanSet() {
+        return beanSet;
+      }
+      @Override
+      public final <I> Creation<I> creation() {
+        return null;
+      }
+      @Override
+      public final <R> R reference(final BeanSelectionCriteria bsc, final Bean<R> bean, final Creation<R> creation) {
+        if (creations != null && creation != null) {
+          creations.add(creation);
+        }
+        return bean.factory().create(creation, this);
+      }
+    };
+  }
+
+}
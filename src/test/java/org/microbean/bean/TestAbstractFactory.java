@@ -0,0 +1,72 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("deprecation")
+final class TestAbstractFactory {
+
+  private TestAbstractFactory() {
+    super();
+  }
+
+  @Test
+  final void testStagesRunInOrder() {
+    final List<String> log = new ArrayList<>();
+    final AbstractFactory<List<String>> f =
+      new AbstractFactory<>((c, r) -> { log.add("produce"); return log; },
+                            new AbstractInitializer<>() {
+                              @Override
+                              public final List<String> initialize(final List<String> i, final Creation<List<String>> c, final ReferenceSelector r) {
+                                i.add("initialize");
+                                return i;
+                              }
+                            },
+                            new AbstractPostInitializer<>() {
+                              @Override
+                              public final List<String> postInitialize(final List<String> i, final Creation<List<String>> c, final ReferenceSelector r) {
+                                i.add("postInitialize");
+                                return i;
+                              }
+                            },
+                            (i, c, r) -> { i.add("apply"); return i; },
+                            null) {};
+    assertSame(log, f.create(null, null));
+    assertEquals(List.of("produce", "initialize", "postInitialize", "apply"), log);
+  }
+
+  @Test
+  final void testPassthroughs() {
+    final Object o = new Object();
+    final AbstractFactory<Object> f =
+      new AbstractFactory<>((c, r) -> o, new AbstractInitializer<>(), null, new AbstractInterceptionsApplicator<>(), null) {};
+    assertSame(o, f.create(null, null));
+  }
+
+  @Test
+  final void testExceptionsPropagate() {
+    final AbstractFactory<Object> f =
+      new AbstractFactory<>((c, r) -> { throw new IllegalStateException(); }, null, null, null, null) {};
+    assertThrows(IllegalStateException.class, () -> f.create(null, null));
+  }
+
+}
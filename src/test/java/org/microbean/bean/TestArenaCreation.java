@@ -0,0 +1,146 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestArenaCreation {
+
+  private TestArenaCreation() {
+    super();
+  }
+
+  @Test
+  final void testTreeClosesInReverseOrder() {
+    final List<Integer> closed = new ArrayList<>();
+    final ArenaCreation<Object> root = new ArenaCreation<>();
+    final AutoCloseable one = () -> closed.add(1);
+    assertTrue(root.register(one));
+    assertFalse(root.register(one));
+    final ArenaCreation<Object> child = root.clone();
+    assertTrue(child.register(() -> closed.add(2)));
+    // The same registrant may be registered with a different node.
+    assertTrue(child.register(one));
+    final ArenaCreation<Object> grandchild = child.clone(null);
+    assertTrue(grandchild.register(() -> closed.add(3)));
+    assertTrue(root.register(() -> closed.add(4)));
+    root.close();
+    assertTrue(root.closed());
+    assertTrue(child.closed());
+    assertTrue(grandchild.closed());
+    assertEquals(List.of(4, 3, 1, 2, 1), closed);
+    assertEquals(0, root.arenaSize());
+
+    // Idempotent.
+    root.close();
+    grandchild.close();
+    assertEquals(5, closed.size());
+    assertFalse(grandchild.register(() -> {}));
+  }
+
+  @Test
+  final void testRepeatedRegistrations() {
+    final int[] count = new int[1];
+    final ArenaCreation<Object> root = new ArenaCreation<>();
+    final ArenaCreation<Object> child = root.clone();
+    final List<AutoCloseable> registrants = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      final AutoCloseable r = () -> count[0]++;
+      registrants.add(r);
+      assertTrue(child.register(r));
+      assertTrue(root.register(r));
+    }
+    for (final AutoCloseable r : registrants) {
+      assertFalse(child.register(r));
+      assertFalse(root.register(r));
+    }
+    child.close();
+    assertEquals(100, count[0]);
+    // A clone of the closed child is a new top-level creation with its own registrations.
+    final ArenaCreation<Object> orphan = child.clone();
+    assertTrue(orphan.register(registrants.get(0)));
+    root.close();
+    assertEquals(200, count[0]);
+    orphan.close();
+    assertEquals(201, count[0]);
+  }
+
+  @Test
+  final void testSubtreeClose() {
+    final List<Integer> closed = new ArrayList<>();
+    final ArenaCreation<Object> root = new ArenaCreation<>();
+    final ArenaCreation<Object> a = root.clone();
+    final ArenaCreation<Object> b = root.clone();
+    final ArenaCreation<Object> aa = a.clone();
+    a.register(() -> closed.add(1));
+    b.register(() -> closed.add(2));
+    aa.register(() -> closed.add(3));
+    root.register(() -> closed.add(4));
+    a.close();
+    assertEquals(List.of(3, 1), closed);
+    assertTrue(aa.closed());
+    assertFalse(b.closed());
+    assertFalse(root.closed());
+    assertFalse(a.register(() -> closed.add(5)));
+
+    // A clone of a closed node is a new top-level creation.
+    final ArenaCreation<Object> orphan = a.clone();
+    assertFalse(orphan.closed());
+    assertTrue(orphan.register(() -> closed.add(6)));
+
+    root.close();
+    assertEquals(List.of(3, 1, 4, 2), closed);
+    assertFalse(orphan.closed());
+    orphan.close();
+    assertEquals(List.of(3, 1, 4, 2, 6), closed);
+  }
+
+  @Test
+  final void testGrowth() {
+    final int[] count = new int[1];
+    final ArenaCreation<Object> root = new ArenaCreation<>();
+    ArenaCreation<Object> c = root;
+    for (int i = 0; i < 100; i++) {
+      c = c.clone();
+      assertTrue(c.register(() -> count[0]++));
+    }
+    assertEquals(201, root.arenaSize());
+    root.close();
+    assertEquals(100, count[0]);
+  }
+
+  @Test
+  final void testExceptions() {
+    final ArenaCreation<Object> root = new ArenaCreation<>();
+    final IllegalStateException first = new IllegalStateException();
+    root.register(() -> { throw new Exception(); });
+    root.clone().register(() -> { throw first; });
+    final IllegalStateException e = assertThrows(IllegalStateException.class, root::close);
+    assertSame(first, e);
+    assertEquals(1, e.getSuppressed().length);
+    assertThrows(IllegalArgumentException.class, () -> root.register(root));
+    assertNotSame(root, root.clone());
+  }
+
+}
@@ -0,0 +1,71 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+
+import javax.lang.model.type.TypeMirror;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import org.microbean.lang.type.DelegatingTypeMirror;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestAssignability {
+
+  private static final TypeAndElementSource tes = Lang.typeAndElementSource();
+
+  private TestAssignability() {
+    super();
+  }
+
+  @Test
+  final void testCaching() {
+    final Assignability a = new Assignability(tes, 16);
+    final TypeMirror listUnknownExtendsString =
+      delegate(tes.declaredType(null, tes.typeElement(List.class), tes.wildcardType(tes.declaredType(String.class), null)));
+    final TypeMirror listString = delegate(tes.declaredType(null, tes.typeElement(List.class), tes.declaredType(String.class)));
+    assertTrue(a.matches(listUnknownExtendsString, listString));
+    assertEquals(0L, a.cacheHits());
+    assertEquals(1L, a.cacheMisses());
+    assertTrue(a.matches(listUnknownExtendsString, listString));
+    assertEquals(1L, a.cacheHits());
+    assertEquals(1L, a.cacheMisses());
+    // Equal but not identical types hit the cache too.
+    assertTrue(a.matches(listUnknownExtendsString,
+                         delegate(tes.declaredType(null, tes.typeElement(List.class), tes.declaredType(String.class)))));
+    assertEquals(2L, a.cacheHits());
+    assertFalse(a.matches(listString, delegate(tes.declaredType(Object.class))));
+    assertEquals(2L, a.cacheMisses());
+  }
+
+  @Test
+  final void testNoCaching() {
+    final Assignability a = new Assignability(tes);
+    assertTrue(a.matches(delegate(tes.declaredType(String.class)), delegate(tes.declaredType(String.class))));
+    assertEquals(0L, a.cacheHits());
+    assertEquals(0L, a.cacheMisses());
+  }
+
+  private static final TypeMirror delegate(final TypeMirror t) {
+    return DelegatingTypeMirror.of(t, tes, Lang.sameTypeEquality());
+  }
+
+}
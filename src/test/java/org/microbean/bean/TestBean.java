@@ -17,6 +17,7 @@ import java.lang.constant.Constable;
 import java.lang.constant.ConstantDesc;
 
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
@@ -24,10 +25,17 @@ import org.microbean.constant.Constables;
 
 import org.microbean.lang.Lang;
 
+import org.microbean.qualifier.NamedAttributeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import static org.microbean.bean.InterceptorBindings.interceptorBinding;
 import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.anyQualifier;
+import static org.microbean.bean.Qualifiers.defaultQualifier;
 
 import static org.microbean.scope.Scope.SINGLETON_ID;
 
@@ -49,6 +57,20 @@ final class TestBean {
     assertFalse(id.describeConstable().isEmpty());
   }
 
+  @Test
+  final void testAttributePartitions() {
+    final NamedAttributeMap<?> logged = new NamedAttributeMap<>("Logged", Map.of(), Map.of(), List.of(interceptorBinding()));
+    final Id id =
+      new Id(List.of(Lang.declaredType(String.class)),
+             List.of(anyQualifier(), logged, defaultQualifier()),
+             SINGLETON_ID);
+    assertEquals(List.of(anyQualifier(), defaultQualifier()), id.qualifiers());
+    assertEquals(List.of(logged), id.interceptorBindings());
+    // Partitions are computed once.
+    assertSame(id.qualifiers(), id.qualifiers());
+    assertSame(id.interceptorBindings(), id.interceptorBindings());
+  }
+
   @Test
   final void testAnyAndDefaultQualifiersCanBeConstable() {
     assertFalse(Constables.describeConstable(anyAndDefaultQualifiers()).isEmpty());
@@ -0,0 +1,104 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.reflect.Method;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.Map;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import static java.lang.invoke.MethodHandles.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+final class TestBeanSetSnapshot {
+
+  private static final TypeAndElementSource tes = Lang.typeAndElementSource();
+
+  private static final Assignability assignability = new Assignability(tes);
+
+  private TestBeanSetSnapshot() {
+    super();
+  }
+
+  @Test
+  final void testSnapshot() throws ReflectiveOperationException {
+    final Bean<String> hello = hello();
+    final DefaultBeanSet beanSet = BeanSetSnapshot.prime(new DefaultBeanSet(assignability, List.of(hello), Map.of(), null));
+    final BeanSelectionCriteria bsc = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    assertSame(hello, beanSet.bean(bsc));
+
+    final byte[] classBytes = BeanSetSnapshot.generate(beanSet, "org.microbean.bean.GeneratedBeanSetSnapshot");
+    final Method m = lookup().defineClass(classBytes).getMethod("beanSet");
+    final DefaultBeanSet snapshot = (DefaultBeanSet)m.invoke(null);
+
+    // The dynamic constant is resolved once.
+    assertSame(snapshot, m.invoke(null));
+
+    assertEquals(beanSet.beans(), snapshot.beans());
+    assertTrue(snapshot.resolvedBeans().contains(hello));
+    assertEquals(hello, snapshot.bean(bsc));
+  }
+
+  @Test
+  final void testMainWithCollectionSupplier(@TempDir final Path directory) throws Exception {
+    final String className = "org.microbean.bean.GeneratedMainBeanSetSnapshot";
+    BeanSetSnapshot.main(new String[] { Beans.class.getName(), className, directory.toString() });
+    final byte[] classBytes = Files.readAllBytes(directory.resolve(className.replace('.', '/') + ".class"));
+    final DefaultBeanSet snapshot = (DefaultBeanSet)lookup().defineClass(classBytes).getMethod("beanSet").invoke(null);
+    final BeanSelectionCriteria bsc = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    assertEquals(hello(), snapshot.bean(bsc));
+  }
+
+  private static final Bean<String> hello() {
+    return
+      new Bean<>(new Id(List.of(tes.declaredType(String.class), tes.declaredType(Object.class)),
+                        anyAndDefaultQualifiers(),
+                        SINGLETON_ID),
+                 new Singleton<>("Hello"));
+  }
+
+  static final class Beans implements Supplier<List<Bean<?>>> {
+
+    Beans() {
+      super();
+    }
+
+    @Override // Supplier<List<Bean<?>>>
+    public final List<Bean<?>> get() {
+      return List.of(hello());
+    }
+
+  }
+
+}
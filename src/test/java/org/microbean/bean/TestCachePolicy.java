@@ -0,0 +1,141 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.bean.Alternate.Resolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.microbean.bean.Fixtures.assignability;
+import static org.microbean.bean.Fixtures.bean;
+import static org.microbean.bean.Fixtures.bsc;
+
+final class TestCachePolicy {
+
+  private TestCachePolicy() {
+    super();
+  }
+
+  @Test
+  final void testBounded() {
+    final Bean<?> string = bean(String.class, "a");
+    final Bean<?> integer = bean(Integer.class, Integer.valueOf(1));
+    final DefaultBeanSet beans =
+      new DefaultBeanSet(assignability, List.of(string, integer), Map.of(), null, false, CachePolicy.bounded(1));
+    assertSame(string, beans.bean(bsc(String.class)));
+    assertSame(string, beans.bean(bsc(String.class)));
+    assertTrue(beans.resolutionCacheStatistics().hits() >= 1L);
+    assertSame(integer, beans.bean(bsc(Integer.class)));
+
+    // Only the most recently used selection remains, and its resolution is the only one that remains.
+    assertEquals(Set.of(bsc(Integer.class)), beans.beanSelectionCriterias());
+    assertEquals(Set.of(integer), beans.resolvedBeans());
+    assertTrue(beans.selectionCacheStatistics().evictions() >= 1L);
+    assertTrue(beans.selectionCacheStatistics().loads() >= 2L);
+
+    // An evicted resolution is recomputed.
+    assertSame(string, beans.bean(bsc(String.class)));
+  }
+
+  @Test
+  final void testSelectionEvictedDuringResolution() {
+    final Bean<?> string = bean(String.class, "a");
+    final Bean<?> integer = bean(Integer.class, Integer.valueOf(1));
+    final AtomicReference<DefaultBeanSet> holder = new AtomicReference<>();
+    final Resolver resolver = new Resolver() {
+        @Override
+        public final <T extends Alternate> T resolve(final BeanSelectionCriteria bsc,
+                                                     final Collection<? extends T> alternates,
+                                                     final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> f) {
+          final DefaultBeanSet beans = holder.get();
+          if (beans != null && bsc.equals(bsc(String.class))) {
+            // Evicts the selection for String, whose resolution is not yet cached.
+            beans.beans(bsc(Integer.class));
+          }
+          return Resolver.super.resolve(bsc, alternates, f);
+        }
+      };
+    final DefaultBeanSet beans =
+      new DefaultBeanSet(assignability, List.of(string, integer), Map.of(), resolver, false, CachePolicy.bounded(1));
+    holder.set(beans);
+    assertSame(string, beans.bean(bsc(String.class)));
+    assertEquals(Set.of(bsc(Integer.class)), beans.beanSelectionCriterias());
+    // The resolution for String was not cached without its selection.
+    assertFalse(beans.resolvedBeans().contains(string));
+  }
+
+  @Test
+  final void testPreCalculatedResolutionsArePinned() {
+    final Bean<?> string = bean(String.class, "a");
+    final Bean<?> integer = bean(Integer.class, Integer.valueOf(1));
+    final DefaultBeanSet beans =
+      new DefaultBeanSet(assignability, List.of(integer), Map.of(bsc(String.class), string), null, false, CachePolicy.bounded(1));
+    assertSame(integer, beans.bean(bsc(Integer.class)));
+    assertTrue(beans.resolvedBeans().contains(string));
+    assertSame(string, beans.bean(bsc(String.class)));
+  }
+
+  @Test
+  final void testWeak() {
+    final Bean<?> string = bean(String.class, "a");
+    final DefaultBeanSet beans = new DefaultBeanSet(assignability, List.of(string), Map.of(), null, false, CachePolicy.weak());
+    // Strongly reachable, so not evicted.
+    final BeanSelectionCriteria bsc = bsc(String.class);
+    assertSame(string, beans.bean(bsc));
+    assertSame(string, beans.bean(bsc(String.class)));
+    assertTrue(beans.beanSelectionCriterias().contains(bsc));
+    assertTrue(beans.resolutionCacheStatistics().hitRate() > 0.0);
+  }
+
+  @Test
+  final void testWeakEviction() throws InterruptedException {
+    final Bean<?> string = bean(String.class, "a");
+    final DefaultBeanSet beans = new DefaultBeanSet(assignability, List.of(string), Map.of(), null, false, CachePolicy.weak());
+    BeanSelectionCriteria bsc = bsc(String.class);
+    assertSame(string, beans.bean(bsc));
+    assertTrue(beans.beanSelectionCriterias().contains(bsc));
+    bsc = null; // the cache now holds the only references to it
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+    while (beans.beanSelectionCriterias().contains(bsc(String.class)) && System.nanoTime() < deadline) {
+      System.gc();
+      Thread.sleep(10L);
+    }
+    assertFalse(beans.beanSelectionCriterias().contains(bsc(String.class)));
+    assertFalse(beans.resolvedBeans().contains(string));
+    assertTrue(beans.selectionCacheStatistics().evictions() >= 1L);
+  }
+
+  @Test
+  final void testInvalidMaximumSize() {
+    assertThrows(IllegalArgumentException.class, () -> CachePolicy.bounded(0));
+  }
+
+}
@@ -0,0 +1,101 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestClockCache {
+
+  private TestClockCache() {
+    super();
+  }
+
+  @Test
+  final void testRecentlyUsedEntriesSurvive() {
+    final List<Integer> evicted = new ArrayList<>();
+    final ClockCache<Integer, String> c = new ClockCache<>(4, evicted::add);
+    for (int i = 0; i < 4; i++) {
+      assertNull(c.putIfAbsent(i, "v" + i));
+    }
+    assertEquals("v0", c.get(0));
+    assertEquals("v2", c.get(2));
+    c.put(4, "v4");
+    c.put(5, "v5");
+    assertEquals(List.of(1, 3), evicted);
+    assertEquals(Map.of(0, "v0", 2, "v2", 4, "v4", 5, "v5"), c.snapshot());
+    assertEquals("v0", c.putIfAbsent(0, "other"));
+  }
+
+  @Test
+  final void testRemovedEntriesDoNotCountAgainstTheBound() {
+    final List<Integer> evicted = new ArrayList<>();
+    final ClockCache<Integer, String> c = new ClockCache<>(2, evicted::add);
+    c.put(0, "v0");
+    c.put(1, "v1");
+    c.remove(0);
+    c.put(1, "replaced");
+    c.put(2, "v2");
+    assertTrue(evicted.isEmpty());
+    assertEquals(Map.of(1, "replaced", 2, "v2"), c.snapshot());
+  }
+
+  @Test
+  final void testConcurrentInsertionsStayBounded() throws Exception {
+    final int maximumSize = 64;
+    final List<Integer> evicted = new CopyOnWriteArrayList<>();
+    final ClockCache<Integer, Integer> c = new ClockCache<>(maximumSize, evicted::add);
+    final int threads = 8;
+    final int keys = 10_000;
+    try (final ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      final List<Future<?>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        final int offset = t * keys;
+        futures.add(executor.submit(() -> {
+              for (int i = 0; i < keys; i++) {
+                c.putIfAbsent(offset + i, i);
+                c.get(offset + i / 2);
+                assertTrue(c.size() <= maximumSize + threads);
+              }
+            }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    }
+    assertTrue(c.size() <= maximumSize);
+    assertEquals(threads * keys, c.size() + evicted.size());
+    assertFalse(evicted.isEmpty());
+  }
+
+  @Test
+  final void testInvalidMaximumSize() {
+    assertThrows(IllegalArgumentException.class, () -> new ClockCache<>(0, null));
+  }
+
+}
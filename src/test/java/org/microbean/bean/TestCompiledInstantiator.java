@@ -0,0 +1,112 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.lang.invoke.MethodHandles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.microbean.bean.Fixtures.assignability;
+import static org.microbean.bean.Fixtures.bean;
+import static org.microbean.bean.Fixtures.bsc;
+
+final class TestCompiledInstantiator {
+
+  private TestCompiledInstantiator() {
+    super();
+  }
+
+  @Test
+  final void testConstructor() throws ReflectiveOperationException {
+    final ReferenceSelector rs = referenceSelector();
+    final Instantiator<Pair> i =
+      new CompiledInstantiator<>(MethodHandles.lookup().findConstructor(Pair.class, methodType(void.class, String.class, int.class)),
+                                 null,
+                                 List.of(bsc(String.class), bsc(Integer.class)),
+                                 rs);
+    assertEquals(new Pair("a", 1), i.instantiate());
+    assertEquals(new Pair("a", 1), i.instantiate());
+  }
+
+  @Test
+  final void testReceiver() throws ReflectiveOperationException {
+    final Instantiator<String> i =
+      new CompiledInstantiator<>(MethodHandles.lookup().findVirtual(String.class, "concat", methodType(String.class, String.class)),
+                                 bsc(String.class),
+                                 null,
+                                 List.of(bsc(String.class)),
+                                 null,
+                                 referenceSelector());
+    assertEquals("aa", i.instantiate());
+  }
+
+  @Test
+  final void testEachInstantiationGetsItsOwnCreations() throws ReflectiveOperationException {
+    final List<Creation<?>> creations = new CopyOnWriteArrayList<>();
+    final ReferenceSelector rs = referenceSelector(creations);
+    final DefaultCreation<Object> c = new DefaultCreation<>(new DefaultAutoCloseableRegistry());
+    final CompiledInstantiator<Pair> i =
+      new CompiledInstantiator<>(MethodHandles.lookup().findConstructor(Pair.class, methodType(void.class, String.class, int.class)),
+                                 null,
+                                 c,
+                                 List.of(bsc(String.class), bsc(Integer.class)),
+                                 (x, p) -> x == null ? null : x.clone(null),
+                                 rs);
+    assertEquals(new Pair("a", 1), i.instantiate());
+    assertEquals(new Pair("a", 1), i.instantiate());
+    // One fresh Creation per position per instantiation.
+    assertEquals(4, creations.size());
+    assertEquals(4, Set.copyOf(creations).size());
+
+    // The same CompiledInstantiator serves other Creations.
+    final DefaultCreation<Object> other = new DefaultCreation<>(new DefaultAutoCloseableRegistry());
+    assertEquals(new Pair("a", 1), i.instantiate(other));
+    assertEquals(6, creations.size());
+    assertEquals(6, Set.copyOf(creations).size());
+  }
+
+  @Test
+  final void testMismatch() {
+    assertThrows(IllegalArgumentException.class,
+                 () -> new CompiledInstantiator<>(MethodHandles.lookup().findConstructor(Pair.class, methodType(void.class, String.class, int.class)),
+                                                  null,
+                                                  List.of(bsc(String.class)),
+                                                  referenceSelector()));
+  }
+
+  private static final ReferenceSelector referenceSelector() {
+    return referenceSelector(new CopyOnWriteArrayList<>());
+  }
+
+  // Records the Creation supplied to each reference acquisition.
+  private static final ReferenceSelector referenceSelector(final List<Creation<?>> creations) {
+    return
+      Fixtures.referenceSelector(new DefaultBeanSet(assignability, List.of(bean(String.class, "a"), bean(Integer.class, Integer.valueOf(1))), Map.of(), null),
+                                 creations);
+  }
+
+  private static final record Pair(String s, int i) {}
+
+}
@@ -0,0 +1,93 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestConcurrentAutoCloseableRegistry {
+
+  private TestConcurrentAutoCloseableRegistry() {
+    super();
+  }
+
+  @Test
+  final void testReverseOrderAndIdempotency() {
+    final List<Integer> closed = new ArrayList<>();
+    final ConcurrentAutoCloseableRegistry r = new ConcurrentAutoCloseableRegistry();
+    final AutoCloseable one = () -> closed.add(1);
+    assertTrue(r.register(one));
+    assertFalse(r.register(one));
+    assertTrue(r.register(() -> closed.add(2)));
+    final ConcurrentAutoCloseableRegistry child = r.clone();
+    assertTrue(child.register(() -> closed.add(3)));
+    assertEquals(3, r.size());
+    r.close();
+    assertTrue(r.closed());
+    assertTrue(child.closed());
+    assertEquals(List.of(3, 2, 1), closed);
+    r.close();
+    assertEquals(3, closed.size());
+    assertFalse(r.register(() -> {}));
+    assertEquals(0, r.size());
+    assertFalse(r.clone().closed());
+  }
+
+  @Test
+  final void testExceptions() {
+    final ConcurrentAutoCloseableRegistry r = new ConcurrentAutoCloseableRegistry();
+    final IllegalStateException first = new IllegalStateException();
+    r.register(() -> { throw new Exception(); });
+    r.register(() -> { throw first; });
+    final IllegalStateException e = assertThrows(IllegalStateException.class, r::close);
+    assertSame(first, e);
+    assertEquals(1, e.getSuppressed().length);
+  }
+
+  @Test
+  final void testConcurrentRegistration() throws InterruptedException {
+    final ConcurrentAutoCloseableRegistry r = new ConcurrentAutoCloseableRegistry();
+    final AtomicInteger closes = new AtomicInteger();
+    final AtomicInteger registrations = new AtomicInteger();
+    try (final ExecutorService executor = Executors.newFixedThreadPool(8)) {
+      for (int i = 0; i < 10_000; i++) {
+        executor.execute(() -> {
+            if (r.register(closes::incrementAndGet)) {
+              registrations.incrementAndGet();
+            }
+          });
+        if (i == 5_000) {
+          executor.execute(r::close);
+        }
+      }
+    }
+    r.close();
+    // Every successful registration was closed exactly once.
+    assertEquals(registrations.get(), closes.get());
+  }
+
+}
@@ -0,0 +1,184 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestDefaultAutoCloseableRegistry {
+
+  private TestDefaultAutoCloseableRegistry() {
+    super();
+  }
+
+  @Test
+  final void testCloseAsyncClosesConcurrently() throws Exception {
+    final int n = 8;
+    // Each registrant waits for all the others to start closing, so closing completes only if they run concurrently.
+    final CountDownLatch latch = new CountDownLatch(n);
+    final DefaultAutoCloseableRegistry r = new DefaultAutoCloseableRegistry();
+    for (int i = 0; i < n; i++) {
+      r.register(() -> {
+          latch.countDown();
+          assertTrue(latch.await(10, TimeUnit.SECONDS));
+        });
+    }
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      assertNull(r.closeAsync(executor).toCompletableFuture().get(10, TimeUnit.SECONDS));
+      assertTrue(r.closed());
+      // Idempotent.
+      assertNull(r.closeAsync(executor).toCompletableFuture().get());
+    }
+  }
+
+  @Test
+  final void testOrderingConstraints() throws Exception {
+    final List<String> closed = new CopyOnWriteArrayList<>();
+    final DefaultAutoCloseableRegistry r = new DefaultAutoCloseableRegistry();
+    final AutoCloseable client = () -> {
+      Thread.sleep(50L);
+      closed.add("client");
+    };
+    final AutoCloseable connection = () -> closed.add("connection");
+    final AutoCloseable pool = () -> closed.add("pool");
+    assertTrue(r.register(client));
+    assertTrue(r.registerAfter(client, connection));
+    assertTrue(r.registerAfter(connection, pool));
+    assertFalse(r.registerAfter(client, pool));
+    assertThrows(IllegalArgumentException.class, () -> r.registerAfter(() -> {}, () -> {}));
+    final DefaultAutoCloseableRegistry child = r.clone();
+    child.register(() -> closed.add("child"));
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      r.closeAsync(executor).toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+    assertTrue(child.closed());
+    assertEquals(4, closed.size());
+    assertTrue(closed.indexOf("client") < closed.indexOf("connection"));
+    assertTrue(closed.indexOf("connection") < closed.indexOf("pool"));
+    assertFalse(r.registerAfter(client, () -> {}));
+  }
+
+  @Test
+  final void testSynchronousCloseHonorsOrderingConstraints() {
+    final List<String> closed = new CopyOnWriteArrayList<>();
+    final DefaultAutoCloseableRegistry r = new DefaultAutoCloseableRegistry();
+    final AutoCloseable first = () -> closed.add("first");
+    r.register(first);
+    r.register(() -> closed.add("other"));
+    r.registerAfter(first, () -> closed.add("second"));
+    r.close();
+    assertEquals(List.of("first", "other", "second"), closed);
+  }
+
+  @Test
+  final void testCloseAsyncAggregatesFailures() throws Exception {
+    final DefaultAutoCloseableRegistry r = new DefaultAutoCloseableRegistry();
+    final IllegalStateException first = new IllegalStateException();
+    final Exception second = new Exception();
+    r.register(() -> { throw first; });
+    r.register(() -> { throw second; });
+    r.clone().register(() -> { throw new UnsupportedOperationException(); });
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final ExecutionException e = assertThrows(ExecutionException.class, () -> r.closeAsync(executor).toCompletableFuture().get());
+      assertSame(first, e.getCause());
+      assertEquals(2, first.getSuppressed().length);
+      assertSame(second, first.getSuppressed()[0]);
+      assertTrue(first.getSuppressed()[1] instanceof UnsupportedOperationException);
+    }
+  }
+
+  @Test
+  final void testErrorsAreAggregatedAlikeSynchronouslyAndAsynchronously() throws Exception {
+    final DefaultAutoCloseableRegistry sync = new DefaultAutoCloseableRegistry();
+    final AssertionError syncError = new AssertionError();
+    final IllegalStateException syncSecond = new IllegalStateException();
+    final List<String> closed = new CopyOnWriteArrayList<>();
+    sync.register(() -> { throw syncError; });
+    sync.register(() -> { throw syncSecond; });
+    sync.register(() -> closed.add("sync"));
+    // An Error does not stop the remaining registrants from being closed, and does not drop the failures that follow.
+    assertSame(syncError, assertThrows(AssertionError.class, sync::close));
+    assertEquals(List.of(syncSecond), List.of(syncError.getSuppressed()));
+
+    final DefaultAutoCloseableRegistry async = new DefaultAutoCloseableRegistry();
+    final AssertionError asyncError = new AssertionError();
+    final IllegalStateException asyncSecond = new IllegalStateException();
+    async.register(() -> { throw asyncError; });
+    async.register(() -> { throw asyncSecond; });
+    async.register(() -> closed.add("async"));
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final ExecutionException e = assertThrows(ExecutionException.class, () -> async.closeAsync(executor).toCompletableFuture().get());
+      assertSame(asyncError, e.getCause());
+      assertEquals(List.of(asyncSecond), List.of(asyncError.getSuppressed()));
+    }
+    assertEquals(List.of("sync", "async"), closed);
+  }
+
+  @Test
+  final void testCloseAsyncWithRejectingExecutor() throws Exception {
+    final List<String> closed = new CopyOnWriteArrayList<>();
+    final DefaultAutoCloseableRegistry r = new DefaultAutoCloseableRegistry();
+    final AutoCloseable first = () -> closed.add("first");
+    r.register(first);
+    // A nested registry that uses the default closeAsync(Executor) implementation, which submits to the executor.
+    final DefaultAutoCloseableRegistry delegate = new DefaultAutoCloseableRegistry();
+    delegate.register(() -> closed.add("nested"));
+    final AutoCloseableRegistry nested = new AutoCloseableRegistry() {
+        @Override
+        public final AutoCloseableRegistry clone() {
+          return delegate.clone();
+        }
+        @Override
+        public final void close() {
+          delegate.close();
+        }
+        @Override
+        public final boolean closed() {
+          return delegate.closed();
+        }
+        @Override
+        public final boolean register(final AutoCloseable c) {
+          return delegate.register(c);
+        }
+      };
+    r.registerAfter(first, nested);
+    r.registerAfter(nested, () -> closed.add("last"));
+    r.clone().register(() -> closed.add("child"));
+    final Executor rejecting = task -> { throw new RejectedExecutionException(); };
+    assertNull(r.closeAsync(rejecting).toCompletableFuture().get(10, TimeUnit.SECONDS));
+    assertTrue(r.closed());
+    assertTrue(delegate.closed());
+    assertEquals(4, closed.size());
+    assertTrue(closed.indexOf("first") < closed.indexOf("nested"));
+    assertTrue(closed.indexOf("nested") < closed.indexOf("last"));
+  }
+
+}
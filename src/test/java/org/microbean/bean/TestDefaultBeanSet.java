@@ -22,19 +22,42 @@ import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.SequencedSet;
 import java.util.Set;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.function.BiFunction;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import javax.lang.model.element.ModuleElement;
 import javax.lang.model.element.TypeElement;
 
+import javax.lang.model.type.TypeKind;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.microbean.bean.Alternate.Resolver;
+
 import org.microbean.constant.Constables;
 
 import org.microbean.lang.Lang;
@@ -47,10 +70,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
 import static org.microbean.bean.Qualifiers.defaultQualifier;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
 
 import static org.microbean.scope.Scope.SINGLETON_ID;
 
@@ -107,6 +132,159 @@ final class TestDefaultBeanSet {
     assertSame("Hello", hello.factory().create(null, null));
   }
 
+  @Test
+  final void testIndexedSelection() {
+    final Bean<Integer> fortyTwo =
+      new Bean<>(new Id(new BeanTypeList(List.of(tes.declaredType(Integer.class), tes.declaredType(Number.class), tes.declaredType(Object.class))),
+                        anyAndDefaultQualifiers(),
+                        SINGLETON_ID,
+                        10),
+                 new Singleton<>(Integer.valueOf(42)));
+    final DefaultBeanSet beans = new DefaultBeanSet(assignability, List.of(fortyTwo, hello), Map.of(), null);
+
+    // Rank order (ascending) is preserved across buckets.
+    final SequencedSet<Bean<?>> objects = beans.beans(new BeanSelectionCriteria(assignability, tes.declaredType(Object.class), defaultQualifiers(), true));
+    assertEquals(List.of(hello, fortyTwo), List.copyOf(objects));
+
+    assertEquals(Set.of(fortyTwo), beans.beans(new BeanSelectionCriteria(assignability, tes.declaredType(Integer.class), defaultQualifiers(), true)));
+    assertEquals(Set.of(fortyTwo), beans.beans(new BeanSelectionCriteria(assignability, tes.primitiveType(TypeKind.INT), defaultQualifiers(), false)));
+    assertEquals(Set.of(hello), beans.beans(new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true)));
+    assertTrue(beans.beans(new BeanSelectionCriteria(assignability, tes.declaredType(Long.class), defaultQualifiers(), true)).isEmpty());
+  }
+
+  @Test
+  final void testValidateAndPrime() {
+    final Bean<Integer> fortyTwo =
+      new Bean<>(new Id(List.of(tes.declaredType(Integer.class), tes.declaredType(Object.class)),
+                        anyAndDefaultQualifiers(),
+                        SINGLETON_ID),
+                 new Singleton<>(Integer.valueOf(42)));
+    final BeanSelectionCriteria string = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    final BeanSelectionCriteria object = new BeanSelectionCriteria(assignability, tes.declaredType(Object.class), defaultQualifiers(), true);
+    final BeanSelectionCriteria lng = new BeanSelectionCriteria(assignability, tes.declaredType(Long.class), defaultQualifiers(), true);
+
+    final DefaultBeanSet beans =
+      new DefaultBeanSet(assignability, List.of(hello, fortyTwo, consumer(string)), Map.of(), null, true);
+    assertTrue(beans.resolvedBeans().contains(hello));
+
+    // Not validated by default.
+    new DefaultBeanSet(assignability, List.of(hello, fortyTwo, consumer(string, object, lng)), Map.of(), null);
+
+    // Both the ambiguous and the unsatisfied dependency are reported.
+    final ResolutionException e =
+      assertThrows(ResolutionException.class,
+                   () -> new DefaultBeanSet(assignability, List.of(hello, fortyTwo, consumer(string, object, lng)), Map.of(), null, true));
+    assertEquals(2, e.getSuppressed().length);
+    assertTrue(Arrays.stream(e.getSuppressed()).anyMatch(AmbiguousResolutionException.class::isInstance));
+    assertTrue(Arrays.stream(e.getSuppressed()).anyMatch(UnsatisfiedResolutionException.class::isInstance));
+  }
+
+  @Test
+  final void testConcurrentResolution() throws Exception {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Resolver resolver = new Resolver() {
+        @Override
+        public final <T extends Alternate> T resolve(final BeanSelectionCriteria bsc,
+                                                     final Collection<? extends T> alternates,
+                                                     final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> f) {
+          resolutions.incrementAndGet();
+          try {
+            // Long enough that concurrent callers overlap.
+            Thread.sleep(10L);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return Resolver.super.resolve(bsc, alternates, f);
+        }
+      };
+    final DefaultBeanSet beans = new DefaultBeanSet(assignability, List.of(hello), Map.of(), resolver);
+    final int primed = resolutions.get();
+    final BeanSelectionCriteria string = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    final List<Future<Bean<?>>> futures;
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      final Callable<Bean<?>> task = () -> {
+        latch.await();
+        return beans.bean(string);
+      };
+      futures = IntStream.range(0, 16).mapToObj(i -> executor.submit(task)).toList();
+      latch.countDown();
+    }
+    for (final Future<Bean<?>> f : futures) {
+      assertSame(hello, f.get());
+    }
+    // The criteria was resolved exactly once.
+    assertEquals(primed + 1, resolutions.get());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  final void testWaiterUsesItsOwnFailureHandler() throws Exception {
+    final Bean<Integer> one =
+      new Bean<>(new Id(List.of(tes.declaredType(Integer.class)), anyAndDefaultQualifiers(), SINGLETON_ID), new Singleton<>(Integer.valueOf(1)));
+    final Bean<Integer> two =
+      new Bean<>(new Id(List.of(tes.declaredType(Integer.class)), anyAndDefaultQualifiers(), SINGLETON_ID), new Singleton<>(Integer.valueOf(2)));
+    final BeanSelectionCriteria integer = new BeanSelectionCriteria(assignability, tes.declaredType(Integer.class), defaultQualifiers(), true);
+    final AtomicBoolean block = new AtomicBoolean();
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Resolver resolver = new Resolver() {
+        @Override
+        public final <T extends Alternate> T resolve(final BeanSelectionCriteria bsc,
+                                                     final Collection<? extends T> alternates,
+                                                     final BiFunction<? super BeanSelectionCriteria, ? super Collection<? extends T>, ? extends T> f) {
+          if (integer.equals(bsc) && block.compareAndSet(true, false)) {
+            entered.countDown();
+            try {
+              release.await();
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return Resolver.super.resolve(bsc, alternates, f);
+        }
+      };
+    final DefaultBeanSet beans = new DefaultBeanSet(assignability, List.of(one, two), Map.of(), resolver);
+    block.set(true);
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      // The ambiguity is tolerated by the first caller, which computes the (uncached) null resolution...
+      final Future<Bean<?>> lenient = executor.submit(() -> beans.bean(integer, (x, xx) -> null));
+      assertTrue(entered.await(10L, TimeUnit.SECONDS));
+      // ...while the second, which waits for it, must still fail.
+      final Future<Bean<?>> strict = executor.submit(() -> beans.bean(integer));
+      // Don't release the first caller until the second is waiting on its pending slot.
+      final Field f = DefaultBeanSet.class.getDeclaredField("pendingResolutions");
+      f.setAccessible(true);
+      final CompletableFuture<?> pending = ((Map<?, ? extends CompletableFuture<?>>)f.get(beans)).get(integer);
+      assertNotNull(pending);
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+      while (pending.getNumberOfDependents() == 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10L);
+      }
+      assertEquals(1, pending.getNumberOfDependents());
+      release.countDown();
+      assertNull(lenient.get());
+      final ExecutionException e = assertThrows(ExecutionException.class, strict::get);
+      assertTrue(e.getCause() instanceof AmbiguousResolutionException);
+    }
+  }
+
+  private static final Bean<Runnable> consumer(final BeanSelectionCriteria... dependencies) {
+    final Set<Dependency> ds = Arrays.stream(dependencies).map(Dependency::new).collect(Collectors.toUnmodifiableSet());
+    return
+      new Bean<>(new Id(List.of(tes.declaredType(Runnable.class)), anyAndDefaultQualifiers(), SINGLETON_ID),
+                 new Factory<>() {
+                   @Override
+                   public final Runnable create(final Creation<Runnable> c, final ReferenceSelector rs) {
+                     return () -> {};
+                   }
+                   @Override
+                   public final Set<Dependency> dependencies() {
+                     return ds;
+                   }
+                 });
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   final void testConstableStuff() throws ReflectiveOperationException {
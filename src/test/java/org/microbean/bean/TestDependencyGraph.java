@@ -0,0 +1,117 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+final class TestDependencyGraph {
+
+  private static final TypeAndElementSource tes = Lang.typeAndElementSource();
+
+  private static final Assignability assignability = new Assignability(tes);
+
+  private TestDependencyGraph() {
+    super();
+  }
+
+  @Test
+  final void testTopologicalOrder() {
+    final Bean<?> string = bean(String.class);
+    final Bean<?> integer = bean(Integer.class, dependency(String.class));
+    // Two distinct dependencies that resolve to the same Bean.
+    final Bean<?> runnable = bean(Runnable.class, dependency(Integer.class), dependency(String.class), new Dependency(string(false)));
+    final DependencyGraph g = new DependencyGraph(new DefaultBeanSet(assignability, List.of(runnable, integer, string), Map.of(), null));
+    assertFalse(g.cyclic());
+    assertTrue(g.cycles().isEmpty());
+    assertEquals(g.size(), g.componentCount());
+
+    final int s = g.ordinal(string);
+    final int i = g.ordinal(integer);
+    final int r = g.ordinal(runnable);
+    // Duplicate dependencies yield one edge.
+    assertEquals(2, g.dependencyCount(r));
+    assertArrayEquals(new int[] { Math.min(i, r), Math.max(i, r) }, g.dependents(s));
+
+    final List<Integer> order = Arrays.stream(g.topologicalOrder()).boxed().toList();
+    assertEquals(g.size(), order.size());
+    assertTrue(order.indexOf(s) < order.indexOf(i));
+    assertTrue(order.indexOf(i) < order.indexOf(r));
+    assertTrue(g.component(s) < g.component(i));
+    assertTrue(g.component(i) < g.component(r));
+  }
+
+  @Test
+  final void testCycles() {
+    final Bean<?> runnable = bean(Runnable.class, dependency(Callable.class));
+    final Bean<?> callable = bean(Callable.class, dependency(Runnable.class));
+    final Bean<?> string = bean(String.class, dependency(String.class));
+    final Bean<?> integer = bean(Integer.class, dependency(Runnable.class));
+    final DependencyGraph g =
+      new DependencyGraph(new DefaultBeanSet(assignability, List.of(runnable, callable, string, integer), Map.of(), null));
+    assertTrue(g.cyclic());
+    assertThrows(IllegalStateException.class, g::topologicalOrder);
+    final List<Set<Bean<?>>> cycles = g.cycles().stream().map(Set::copyOf).toList();
+    assertEquals(2, cycles.size());
+    assertTrue(cycles.contains(Set.of(runnable, callable)));
+    assertTrue(cycles.contains(Set.of(string)));
+    assertEquals(g.component(g.ordinal(runnable)), g.component(g.ordinal(callable)));
+    assertTrue(g.component(g.ordinal(runnable)) < g.component(g.ordinal(integer)));
+  }
+
+  private static final BeanSelectionCriteria string(final boolean box) {
+    return new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), box);
+  }
+
+  private static final Dependency dependency(final Class<?> type) {
+    return new Dependency(new BeanSelectionCriteria(assignability, tes.declaredType(type), defaultQualifiers(), true));
+  }
+
+  private static final Bean<?> bean(final Class<?> type, final Dependency... dependencies) {
+    final Set<Dependency> ds = Set.of(dependencies);
+    return
+      new Bean<>(new Id(List.of(tes.declaredType(type)), anyAndDefaultQualifiers(), SINGLETON_ID),
+                 new Factory<Object>() {
+                   @Override
+                   public final Object create(final Creation<Object> c, final ReferenceSelector rs) {
+                     return new Object();
+                   }
+                   @Override
+                   public final Set<Dependency> dependencies() {
+                     return ds;
+                   }
+                 });
+  }
+
+}
@@ -0,0 +1,94 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.parallel.Isolated;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// DisposableReference's metrics are process-wide, so no other test may create DisposableReferences concurrently.
+@Isolated
+final class TestDisposableReference {
+
+  private TestDisposableReference() {
+    super();
+  }
+
+  @Test
+  final void testFailingDisposerDoesNotStopDisposal() throws InterruptedException {
+    final DisposableReference.Metrics before = DisposableReference.metrics();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final DisposableReference<Object> failing = new DisposableReference<>(new Object(), x -> { throw new IllegalStateException(); });
+    final DisposableReference<Object> succeeding = new DisposableReference<>(new Object(), x -> latch.countDown());
+    failing.close();
+    succeeding.close();
+    assertTrue(latch.await(10L, TimeUnit.SECONDS));
+    assertTrue(succeeding.disposed());
+    // Metrics are recorded after each disposer returns.
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+    while ((DisposableReference.metrics().failed() <= before.failed() || DisposableReference.metrics().disposed() <= before.disposed()) &&
+           System.nanoTime() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertTrue(DisposableReference.metrics().failed() > before.failed());
+    assertTrue(DisposableReference.metrics().disposed() > before.disposed());
+  }
+
+  @Test
+  final void testQueueDepth() throws InterruptedException {
+    // Disposals left over from tests that have already finished may still be under way.
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+    while ((DisposableReference.metrics().queued() > 0 || DisposableReference.metrics().inFlight() > 0) &&
+           System.nanoTime() < deadline) {
+      Thread.sleep(10L);
+    }
+    // With the default of one worker, at most 16 disposals are in flight at once; the rest are queued.
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(32);
+    final List<DisposableReference<Object>> rs = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      rs.add(new DisposableReference<>(new Object(), x -> {
+            try {
+              release.await();
+            } catch (final InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            done.countDown();
+      }));
+    }
+    rs.forEach(DisposableReference::close);
+    while (DisposableReference.metrics().queued() < 16 && System.nanoTime() < deadline) {
+      Thread.sleep(10L);
+    }
+    final DisposableReference.Metrics blocked = DisposableReference.metrics();
+    assertEquals(16, blocked.inFlight());
+    assertTrue(blocked.queued() >= 16);
+    release.countDown();
+    assertTrue(done.await(10L, TimeUnit.SECONDS));
+    while (DisposableReference.metrics().queued() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10L);
+    }
+    assertEquals(0, DisposableReference.metrics().queued());
+  }
+
+}
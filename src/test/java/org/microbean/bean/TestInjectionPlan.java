@@ -0,0 +1,66 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.microbean.bean.Fixtures.assignability;
+import static org.microbean.bean.Fixtures.bean;
+import static org.microbean.bean.Fixtures.bsc;
+import static org.microbean.bean.Fixtures.referenceSelector;
+
+final class TestInjectionPlan {
+
+  private TestInjectionPlan() {
+    super();
+  }
+
+  @Test
+  final void testReferences() {
+    final Bean<?> string = bean(String.class, "a");
+    final Bean<?> integer = bean(Integer.class, Integer.valueOf(1));
+    final BeanSet beanSet = new DefaultBeanSet(assignability, List.of(string, integer), Map.of(), null);
+    final InjectionPlan plan = new InjectionPlan(beanSet, bsc(Integer.class), bsc(String.class), bsc(Integer.class));
+    assertEquals(3, plan.size());
+    assertSame(integer, plan.bean(0));
+    assertSame(string, plan.bean(1));
+
+    final ReferenceSelector rs = referenceSelector(beanSet, null);
+    final Object[] references = new Object[4];
+    assertSame(references, rs.references(plan, null, references));
+    assertArrayEquals(new Object[] { Integer.valueOf(1), "a", Integer.valueOf(1), null }, references);
+    assertArrayEquals(new Object[] { Integer.valueOf(1), "a", Integer.valueOf(1) }, rs.references(plan, null));
+
+    assertThrows(IllegalArgumentException.class, () -> rs.references(plan, null, new Object[2]));
+    assertThrows(IllegalArgumentException.class, () -> referenceSelector(new DefaultBeanSet(assignability, List.of(string, integer), Map.of(), null), null)
+                 .references(plan, null));
+  }
+
+  @Test
+  final void testUnsatisfied() {
+    final BeanSet beanSet = new DefaultBeanSet(assignability, List.of(bean(String.class, "a")), Map.of(), null);
+    assertNull(beanSet.bean(bsc(Integer.class)));
+    assertThrows(UnsatisfiedResolutionException.class, () -> new InjectionPlan(beanSet, List.of(bsc(String.class), bsc(Integer.class))));
+  }
+
+}
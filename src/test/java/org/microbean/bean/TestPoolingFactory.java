@@ -0,0 +1,193 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TestPoolingFactory {
+
+  private TestPoolingFactory() {
+    super();
+  }
+
+  @Test
+  final void testRecycling() throws Exception {
+    final AtomicInteger created = new AtomicInteger();
+    final List<Thing> destroyed = new ArrayList<>();
+    final PoolingFactory<Thing> f = new PoolingFactory<>(factory(created, destroyed), 1, Thing::reset);
+
+    final Thing a = f.create(null, null);
+    final Thing b = f.create(null, null);
+    assertNotSame(a, b);
+    assertEquals(2, created.get());
+
+    final AutoCloseable registry = () -> a.registryClosed = true;
+    a.dirty = true;
+    f.destroy(a, registry, null, null);
+    assertTrue(a.registryClosed);
+    assertEquals(1, f.size());
+    assertTrue(destroyed.isEmpty());
+
+    // The pool is full.
+    f.destroy(b, null, null, null);
+    assertEquals(List.of(b), destroyed);
+
+    final Thing c = f.create(null, null);
+    assertSame(a, c);
+    assertEquals(false, c.dirty);
+    assertEquals(2, created.get());
+
+    assertEquals(new PoolingFactory.Statistics(1, 2, 1, 1, 0), f.statistics());
+    assertEquals(1.0 / 3.0, f.statistics().hitRate());
+
+    f.destroy(c, null, null, null);
+    assertEquals(1, f.drain());
+    assertEquals(List.of(b, a), destroyed);
+    assertEquals(0, f.size());
+  }
+
+  @Test
+  final void testDoubleDestroy() {
+    final AtomicInteger created = new AtomicInteger();
+    final List<Thing> destroyed = new ArrayList<>();
+    final PoolingFactory<Thing> f = new PoolingFactory<>(factory(created, destroyed), 4, Thing::reset);
+    final Thing t = f.create(null, null);
+    f.destroy(t, null, null, null);
+    f.destroy(t, null, null, null);
+    assertEquals(1, f.size());
+    assertEquals(1, f.statistics().recycled());
+    assertSame(t, f.create(null, null));
+    assertNotSame(t, f.create(null, null));
+    assertEquals(2, created.get());
+
+    // Once handed out again, the instance may be returned to the pool again.
+    f.destroy(t, null, null, null);
+    assertEquals(1, f.size());
+    assertTrue(destroyed.isEmpty());
+  }
+
+  @Test
+  final void testDrainSuppliesCreationAndReferenceSelector() {
+    final List<Creation<Thing>> creations = new ArrayList<>();
+    final PoolingFactory<Thing> f = new PoolingFactory<>(new Factory<>() {
+        @Override
+        public final Thing create(final Creation<Thing> c, final ReferenceSelector rs) {
+          return new Thing();
+        }
+        @Override
+        public final void destroy(final Thing t, final AutoCloseable registry, final Creation<Thing> c, final ReferenceSelector rs) {
+          creations.add(c);
+        }
+      }, 1, Thing::reset);
+    final Creation<Thing> c = new ArenaCreation<>();
+    f.destroy(f.create(c, null), null, c, null);
+    assertEquals(1, f.drain());
+    assertEquals(List.of(c), creations);
+  }
+
+  @Test
+  final void testUnresettableInstancesAreDestroyed() {
+    final List<Thing> destroyed = new ArrayList<>();
+    final PoolingFactory<Thing> f = new PoolingFactory<>(factory(new AtomicInteger(), destroyed), 4, t -> false);
+    final Thing t = f.create(null, null);
+    f.destroy(t, null, null, null);
+    assertEquals(List.of(t), destroyed);
+    assertEquals(0, f.size());
+  }
+
+  @Test
+  final void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new PoolingFactory<>(factory(new AtomicInteger(), new ArrayList<>()), 0, Thing::reset));
+  }
+
+  @Test
+  final void testConcurrentUse() throws Exception {
+    final AtomicInteger created = new AtomicInteger();
+    final PoolingFactory<Thing> f = new PoolingFactory<>(factory(created, new ArrayList<>()), 8, Thing::reset);
+    final int threads = 8;
+    final int iterations = 10_000;
+    try (final ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      final List<Future<?>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        futures.add(executor.submit(() -> {
+              for (int i = 0; i < iterations; i++) {
+                final Thing thing = f.create(null, null);
+                assertEquals(false, thing.inUse);
+                thing.inUse = true;
+                thing.inUse = false;
+                f.destroy(thing, null, null, null);
+              }
+            }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    }
+    final PoolingFactory.Statistics s = f.statistics();
+    assertEquals(threads * iterations, s.hits() + s.misses());
+    assertEquals(s.misses(), created.get());
+    assertTrue(f.size() <= f.capacity());
+  }
+
+  private static final Factory<Thing> factory(final AtomicInteger created, final List<Thing> destroyed) {
+    return new Factory<>() {
+      @Override
+      public final Thing create(final Creation<Thing> c, final ReferenceSelector rs) {
+        created.incrementAndGet();
+        return new Thing();
+      }
+      @Override
+      public final void destroy(final Thing t, final AutoCloseable registry, final Creation<Thing> c, final ReferenceSelector rs) {
+        synchronized (destroyed) {
+          destroyed.add(t);
+        }
+      }
+    };
+  }
+
+  private static final class Thing {
+
+    private volatile boolean dirty;
+
+    private volatile boolean inUse;
+
+    private volatile boolean registryClosed;
+
+    private Thing() {
+      super();
+    }
+
+    private final boolean reset() {
+      this.dirty = false;
+      return true;
+    }
+
+  }
+
+}
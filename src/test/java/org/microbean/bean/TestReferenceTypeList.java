@@ -21,6 +21,8 @@ import java.util.Map;
 
 import java.util.concurrent.ConcurrentMap;
 
+import java.util.function.Predicate;
+
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
 
@@ -33,6 +35,7 @@ import org.microbean.lang.type.DelegatingTypeMirror;
 import org.microbean.lang.visitor.Visitors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -122,4 +125,24 @@ final class TestReferenceTypeList {
     System.out.println("*** rtl types: " + rtl.types());
   }
 
+  @Test
+  final void testBeanTypeListClosureIsCached() {
+    final BeanTypeList closure = BeanTypeList.closure(declaredType(String.class));
+    assertSame(closure, BeanTypeList.closure(declaredType(String.class)));
+    assertEquals(closure, BeanTypeList.closure(declaredType(String.class), t -> true, Lang.typeAndElementSource()));
+    // Closures computed with other filters are not cached.
+    final Predicate<TypeMirror> all = t -> true;
+    assertNotSame(BeanTypeList.closure(declaredType(String.class), all, Lang.typeAndElementSource()),
+                  BeanTypeList.closure(declaredType(String.class), all, Lang.typeAndElementSource()));
+  }
+
+  @Test
+  final void testDeduplication() {
+    final ReferenceTypeList rtl =
+      new ReferenceTypeList(List.of(declaredType(Object.class), declaredType(String.class), declaredType(Object.class), declaredType(String.class)));
+    assertEquals(2, rtl.types().size());
+    assertEquals(rtl.types(), rtl.classes());
+    assertTrue(rtl.interfaces().isEmpty());
+  }
+
 }
@@ -14,6 +14,7 @@
 package org.microbean.bean;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.lang.model.type.TypeKind;
 
@@ -22,9 +23,21 @@ import org.junit.jupiter.api.Test;
 import org.microbean.lang.Lang;
 import org.microbean.lang.TypeAndElementSource;
 
+import org.microbean.qualifier.NamedAttributeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import static org.microbean.bean.InterceptorBindings.anyInterceptorBinding;
+import static org.microbean.bean.InterceptorBindings.interceptorBinding;
+import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.anyQualifier;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
+import static org.microbean.bean.Qualifiers.qualifier;
+
 final class TestSelector {
 
 private static final TypeAndElementSource tes = Lang.typeAndElementSource();
@@ -71,4 +84,55 @@ private static final TypeAndElementSource tes = Lang.typeAndElementSource();
     assertTrue(s.selects(tes.declaredType(null, tes.typeElement(List.class), tes.declaredType(String.class))));
   }
 
+  @Test
+  final void testQualifierSelection() {
+    final NamedAttributeMap<?> named = new NamedAttributeMap<>("Named", Map.of("value", "x"), Map.of(), List.of(qualifier()));
+    final BeanSelectionCriteria none = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), List.of(), true);
+    assertTrue(none.selects(tes.declaredType(String.class), List.of()));
+    assertTrue(none.selects(tes.declaredType(String.class), anyAndDefaultQualifiers()));
+    assertFalse(none.selects(tes.declaredType(String.class), List.of(named, anyQualifier())));
+
+    final BeanSelectionCriteria dflt = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    assertTrue(dflt.selects(tes.declaredType(String.class), List.of()));
+    assertFalse(dflt.selects(tes.declaredType(String.class), List.of(named)));
+
+    final BeanSelectionCriteria x = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), List.of(named), true);
+    assertTrue(x.selects(tes.declaredType(String.class), List.of(anyQualifier(), named)));
+    assertFalse(x.selects(tes.declaredType(String.class), anyAndDefaultQualifiers()));
+    assertFalse(x.selects(tes.declaredType(String.class), List.of()));
+    // Qualifiers match but the type does not.
+    assertFalse(x.selects(tes.declaredType(Object.class), List.of(named)));
+  }
+
+  @Test
+  final void testInterceptorBindingSelection() {
+    final NamedAttributeMap<?> logged = new NamedAttributeMap<>("Logged", Map.of(), Map.of(), List.of(interceptorBinding()));
+    final BeanSelectionCriteria none = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), List.of(), true);
+    assertFalse(none.selects(tes.declaredType(String.class), List.of(logged)));
+    assertTrue(none.selects(tes.declaredType(String.class), List.of(anyInterceptorBinding())));
+
+    final BeanSelectionCriteria l = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), List.of(logged), true);
+    assertTrue(l.selects(tes.declaredType(String.class), List.of(logged)));
+    assertFalse(l.selects(tes.declaredType(String.class), List.of()));
+  }
+
+  @Test
+  final void testInterning() {
+    final BeanSelectionCriteria s = BeanSelectionCriteria.of(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    assertSame(s, BeanSelectionCriteria.of(assignability, tes.declaredType(String.class), defaultQualifiers(), true));
+    final BeanSelectionCriteria t = new BeanSelectionCriteria(assignability, tes.declaredType(String.class), defaultQualifiers(), true);
+    assertEquals(s.hashCode(), t.hashCode());
+    assertSame(s, t.intern());
+    // Dependencies hold canonical instances.
+    assertSame(s, new Dependency(t).beanSelectionCriteria());
+    // A different Assignability yields a different canonical instance.
+    final BeanSelectionCriteria u = BeanSelectionCriteria.of(new Assignability(tes), tes.declaredType(String.class), defaultQualifiers(), true);
+    assertEquals(s, u);
+    assertNotSame(s, u);
+    // The cached hash code does not leak into the attributes' own equality.
+    assertEquals(defaultQualifiers(), s.attributes());
+    assertEquals(defaultQualifiers().hashCode(), s.attributes().hashCode());
+    assertTrue(BeanSelectionCriteria.class.isRecord());
+  }
+
 }
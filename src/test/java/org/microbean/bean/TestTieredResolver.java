@@ -0,0 +1,145 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.bean.TieredResolver.Reason;
+import org.microbean.bean.TieredResolver.Resolution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.microbean.bean.TieredResolver.INSTANCE;
+
+final class TestTieredResolver {
+
+  private TestTieredResolver() {
+    super();
+  }
+
+  @Test
+  final void testHighestRankedAlternateStopsEarly() {
+    final A winner = new A("winner", 10, true);
+    // Ascending order of rank, as DefaultBeanSet supplies it.
+    final List<A> candidates = List.of(new A("a", 0, false), new A("b", 1, true), new A("c", 5, true), winner, new A("d", 20, false));
+    final Resolution<A> r = INSTANCE.explain(candidates);
+    assertSame(winner, r.winner());
+    assertEquals(Reason.HIGHEST_RANKED_ALTERNATE, r.reason());
+    // d and winner; c ends the tier and is never considered.
+    assertEquals(2, r.examined());
+    assertSame(winner, INSTANCE.resolve(candidates));
+    assertEquals(r, INSTANCE.explainSorted(candidates));
+  }
+
+  @Test
+  final void testAmbiguousAlternates() {
+    final A x = new A("x", 10, true);
+    final A y = new A("y", 10, true);
+    final List<A> candidates = List.of(new A("a", 0, false), new A("b", 5, true), x, y);
+    final Resolution<A> r = INSTANCE.explain(candidates);
+    assertNull(r.winner());
+    assertEquals(Reason.AMBIGUOUS, r.reason());
+    assertEquals(Set.of(x, y), new HashSet<>(r.contenders()));
+    assertThrows(AmbiguousResolutionException.class, () -> INSTANCE.resolve(candidates));
+  }
+
+  @Test
+  final void testNonAlternates() {
+    final A sole = new A("sole", 0, false);
+    Resolution<A> r = INSTANCE.explain(List.of(new A("low", -1, true), sole));
+    assertSame(sole, r.winner());
+    assertEquals(Reason.SOLE_NON_ALTERNATE, r.reason());
+
+    r = INSTANCE.explain(List.of(new A("low", -1, true), new A("lower", -2, true)));
+    assertNull(r.winner());
+    assertEquals(Reason.NO_CANDIDATES, r.reason());
+
+    final List<A> ambiguous = List.of(new A("a", 0, false), new A("b", 0, false));
+    assertEquals(Reason.AMBIGUOUS, INSTANCE.explain(ambiguous).reason());
+    final A fallback = new A("fallback", 0, false);
+    assertSame(fallback, INSTANCE.resolve(ambiguous, (bsc, c) -> fallback));
+  }
+
+  @Test
+  final void testTrivial() {
+    assertEquals(Reason.NO_CANDIDATES, INSTANCE.explain(null).reason());
+    assertEquals(Reason.NO_CANDIDATES, INSTANCE.explain(List.of()).reason());
+    final A a = new A("a", -5, true);
+    final Resolution<A> r = INSTANCE.explain(List.of(a));
+    assertSame(a, r.winner());
+    assertEquals(Reason.SOLE_CANDIDATE, r.reason());
+  }
+
+  @Test
+  final void testUnsortedInput() {
+    final A winner = new A("winner", 10, true);
+    final List<A> candidates = List.of(winner, new A("a", 20, false), new A("b", 5, true));
+    assertSame(winner, INSTANCE.explain(candidates).winner());
+    assertSame(winner, INSTANCE.explain(Set.copyOf(candidates)).winner());
+    // Out-of-order input is sorted before the walk, so the highest-ranked alternate wins even though it comes first.
+    final A two = new A("two", 2, true);
+    assertSame(two, INSTANCE.explain(List.of(two, new A("a", -1, true), new A("b", 1, true))).winner());
+  }
+
+  @Test
+  final void testResolveSorted() {
+    final A a = new A("a", 1, true);
+    final A b = new A("b", 1, true);
+    final A c = new A("c", 3, true);
+    assertSame(c, INSTANCE.resolveSorted(null, List.of(a, b, c), null));
+    assertSame(c, INSTANCE.resolveSorted(null, List.of(a, b), (x, contenders) -> contenders.size() == 2 ? c : null));
+    assertThrows(AmbiguousResolutionException.class, () -> INSTANCE.resolveSorted(null, List.of(a, b), null));
+  }
+
+  @Test
+  final void testAgreesWithDefaultResolver() {
+    final Alternate.Resolver stock = new Alternate.Resolver() {};
+    final List<List<A>> cases =
+      List.of(List.of(new A("a", 0, false), new A("b", 3, true), new A("c", 7, true)),
+              List.of(new A("a", 0, false), new A("b", -3, true), new A("c", 5, true)),
+              List.of(new A("a", -3, true), new A("b", 5, false)),
+              List.of(new A("a", -1, true), new A("b", 0, true), new A("c", 0, false), new A("d", 2, false)));
+    for (final List<A> c : cases) {
+      assertSame(stock.resolve(c), INSTANCE.resolve(c));
+    }
+  }
+
+  @Test
+  final void testDepartsFromDefaultResolverWhenALaterCandidateBreaksATie() {
+    final Alternate.Resolver stock = new Alternate.Resolver() {};
+    // Ascending order of rank, as DefaultBeanSet supplies it.
+    final A alternate = new A("alternate", 0, true);
+    final List<A> nonAlternatesThenAlternate = List.of(new A("a", 0, false), new A("b", 0, false), alternate);
+    // The default resolver hands the tie to its failure handler.
+    assertNull(stock.resolve(nonAlternatesThenAlternate, (bsc, contenders) -> null));
+    assertSame(alternate, INSTANCE.resolve(nonAlternatesThenAlternate));
+    assertEquals(Reason.HIGHEST_RANKED_ALTERNATE, INSTANCE.explainSorted(nonAlternatesThenAlternate).reason());
+
+    final A ten = new A("ten", 10, true);
+    final List<A> tiedThenHigher = List.of(new A("x", 5, true), new A("y", 5, true), ten);
+    assertNull(stock.resolve(tiedThenHigher, (bsc, contenders) -> null));
+    assertSame(ten, INSTANCE.resolve(tiedThenHigher));
+    assertEquals(Reason.HIGHEST_RANKED_ALTERNATE, INSTANCE.explainSorted(tiedThenHigher).reason());
+  }
+
+  private static final record A(String name, int rank, boolean alternate) implements Alternate {}
+
+}
@@ -0,0 +1,89 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.time.Duration;
+
+import java.util.List;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.concurrent.locks.LockSupport;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.junit.jupiter.api.parallel.Isolated;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Pinning events are recorded for every virtual thread in the JVM, so no other test may run concurrently.
+@Isolated
+final class TestVirtualThreadPinning {
+
+  private static final int CREATIONS = 5_000;
+
+  private TestVirtualThreadPinning() {
+    super();
+  }
+
+  @Test
+  final void testNoPinningDuringCreationAndTeardown() throws InterruptedException {
+    final List<RecordedEvent> pinnings = new CopyOnWriteArrayList<>();
+    final AtomicInteger closes = new AtomicInteger();
+    // Closing parks the closing (virtual) thread, as blocking I/O would.
+    final AutoCloseable blocking = () -> {
+      LockSupport.parkNanos(100_000L);
+      closes.incrementAndGet();
+    };
+    try (final RecordingStream rs = new RecordingStream()) {
+      rs.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      rs.onEvent("jdk.VirtualThreadPinned", pinnings::add);
+      rs.startAsync();
+
+      // Shared parents, so that virtual threads contend for their locks.
+      final DefaultAutoCloseableRegistry registry = new DefaultAutoCloseableRegistry();
+      final ArenaCreation<Object> arena = new ArenaCreation<>();
+      try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < CREATIONS; i++) {
+          executor.execute(() -> {
+              final DefaultCreation<Object> c = new DefaultCreation<>(registry.clone());
+              final DefaultCreation<Object> dependent = c.clone(null);
+              dependent.register(() -> blocking.close());
+              dependent.register(new DisposableReference<>(new Object(), null));
+              c.close();
+
+              final ArenaCreation<Object> a = arena.clone();
+              a.clone(null).register(() -> blocking.close());
+              a.close();
+            });
+        }
+      }
+      registry.close();
+      arena.close();
+
+      rs.stop(); // waits until recorded events have been consumed
+    }
+    assertEquals(2 * CREATIONS, closes.get());
+    assertTrue(pinnings.isEmpty(), () -> pinnings.size() + " pinning events; first: " + pinnings.get(0));
+  }
+
+}
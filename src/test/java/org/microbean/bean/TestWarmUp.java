@@ -0,0 +1,186 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2024 microBean™.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.microbean.bean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import org.microbean.lang.Lang;
+import org.microbean.lang.TypeAndElementSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.microbean.bean.Qualifiers.anyAndDefaultQualifiers;
+import static org.microbean.bean.Qualifiers.defaultQualifiers;
+
+import static org.microbean.scope.Scope.SINGLETON_ID;
+
+final class TestWarmUp {
+
+  private static final TypeAndElementSource tes = Lang.typeAndElementSource();
+
+  private static final Assignability assignability = new Assignability(tes);
+
+  private TestWarmUp() {
+    super();
+  }
+
+  @Test
+  final void testWarmUp() throws InterruptedException {
+    final List<Class<?>> created = new CopyOnWriteArrayList<>();
+    final Bean<?> string = bean(String.class, created, false);
+    final Bean<?> integer = bean(Integer.class, created, false, String.class);
+    final Bean<?> runnable = bean(Runnable.class, created, false, Integer.class, String.class);
+    final DefaultBeanSet beanSet = new DefaultBeanSet(assignability, List.of(runnable, integer, string), Map.of(), null);
+    final Map<Bean<?>, Object> singletons = new ConcurrentHashMap<>();
+    final List<DefaultCreation<?>> creations = new CopyOnWriteArrayList<>();
+    final ReferenceSelector rs = referenceSelector(beanSet, singletons, creations);
+    final WarmUp.Report report;
+    try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      report = new WarmUp(new DependencyGraph(beanSet), executor).run(rs, (b, i, c) -> singletons.put(b, i));
+    }
+    assertTrue(report.successful());
+    assertEquals(List.of(String.class, Integer.class, Runnable.class), created);
+    // The warmed instance is the one later handed out, and is not created again.
+    final Object warmed = singletons.get(runnable);
+    assertNotNull(warmed);
+    assertSame(warmed, rs.reference(null, runnable.cast(), rs.creation()));
+    assertEquals(3, created.size());
+    for (final DefaultCreation<?> c : creations) {
+      assertFalse(c.closed());
+    }
+    assertTrue(report.creationTimes().keySet().containsAll(Set.of(string, integer, runnable)));
+    assertEquals(List.of(string, integer, runnable), report.criticalPath());
+    assertFalse(report.criticalPathLength().isNegative());
+  }
+
+  @Test
+  final void testFailure() throws InterruptedException {
+    final List<Class<?>> created = new CopyOnWriteArrayList<>();
+    final Bean<?> string = bean(String.class, created, true);
+    final Bean<?> integer = bean(Integer.class, created, false, String.class);
+    final Bean<?> runnable = bean(Runnable.class, created, false);
+    final DefaultBeanSet beanSet = new DefaultBeanSet(assignability, List.of(runnable, integer, string), Map.of(), null);
+    final Map<Bean<?>, Object> singletons = new ConcurrentHashMap<>();
+    final List<DefaultCreation<?>> creations = new CopyOnWriteArrayList<>();
+    final WarmUp.Report report =
+      new WarmUp(new DependencyGraph(beanSet), Runnable::run)
+      .run(referenceSelector(beanSet, singletons, creations), (b, i, c) -> singletons.put(b, i));
+    assertFalse(report.successful());
+    assertEquals(Set.of(string), report.failures().keySet());
+    assertEquals(List.of(integer), report.skipped());
+    assertEquals(List.of(Runnable.class), created);
+    assertTrue(singletons.containsKey(runnable));
+    assertFalse(singletons.containsKey(string));
+    // Exactly one Creation, the failed one, has been closed.
+    assertEquals(1, creations.stream().filter(DefaultCreation::closed).count());
+  }
+
+  @Test
+  final void testSinkFailure() throws InterruptedException {
+    final List<Class<?>> created = new CopyOnWriteArrayList<>();
+    final Bean<?> string = bean(String.class, created, false);
+    final DefaultBeanSet beanSet = new DefaultBeanSet(assignability, List.of(string), Map.of(), null);
+    final List<DefaultCreation<?>> creations = new CopyOnWriteArrayList<>();
+    final IllegalStateException e = new IllegalStateException();
+    final WarmUp.Report report =
+      new WarmUp(new DependencyGraph(beanSet), Runnable::run)
+      .run(referenceSelector(beanSet, new ConcurrentHashMap<>(), creations), (b, i, c) -> {
+          if (b == string) {
+            throw e;
+          }
+        });
+    assertSame(e, report.failures().get(string));
+    assertEquals(1, creations.stream().filter(DefaultCreation::closed).count());
+  }
+
+  @Test
+  final void testCycle() {
+    final List<Class<?>> created = new CopyOnWriteArrayList<>();
+    final DefaultBeanSet beanSet =
+      new DefaultBeanSet(assignability,
+                         List.of(bean(Runnable.class, created, false, Callable.class), bean(Callable.class, created, false, Runnable.class)),
+                         Map.of(),
+                         null);
+    assertThrows(IllegalStateException.class, () -> new WarmUp(new DependencyGraph(beanSet), Runnable::run));
+  }
+
+  // A ReferenceSelector that serves singletons from the supplied Map, as a singleton scope would.
+  private static final ReferenceSelector referenceSelector(final BeanSet beanSet,
+                                                           final Map<Bean<?>, Object> singletons,
+                                                           final List<DefaultCreation<?>> creations) {
+    return new ReferenceSelector() {
+      @Override
+      public final BeanSet beanSet() {
+        return beanSet;
+      }
+      @Override
+      public final <I> Creation<I> creation() {
+        final DefaultCreation<I> c = new DefaultCreation<>(new DefaultAutoCloseableRegistry());
+        creations.add(c);
+        return c;
+      }
+      @Override
+      @SuppressWarnings("unchecked")
+      public final <R> R reference(final BeanSelectionCriteria bsc, final Bean<R> bean, final Creation<R> creation) {
+        return (R)singletons.computeIfAbsent(bean, b -> bean.factory().create(creation, this));
+      }
+    };
+  }
+
+  private static final Bean<?> bean(final Class<?> type, final List<Class<?>> created, final boolean fail, final Class<?>... dependencyTypes) {
+    final Dependency[] ds = new Dependency[dependencyTypes.length];
+    for (int i = 0; i < ds.length; i++) {
+      ds[i] = new Dependency(new BeanSelectionCriteria(assignability, tes.declaredType(dependencyTypes[i]), defaultQualifiers(), true));
+    }
+    final Set<Dependency> dependencies = Set.of(ds);
+    return
+      new Bean<>(new Id(List.of(tes.declaredType(type)), anyAndDefaultQualifiers(), SINGLETON_ID),
+                 new Factory<Object>() {
+                   @Override
+                   public final Object create(final Creation<Object> c, final ReferenceSelector rs) {
+                     if (fail) {
+                       throw new IllegalStateException();
+                     }
+                     try {
+                       // Long enough to dominate the creation times of DefaultBeanSet's own singletons.
+                       Thread.sleep(5L);
+                     } catch (final InterruptedException e) {
+                       Thread.currentThread().interrupt();
+                     }
+                     created.add(type);
+                     return new Object();
+                   }
+                   @Override
+                   public final Set<Dependency> dependencies() {
+                     return dependencies;
+                   }
+                 });
+  }
+
+}